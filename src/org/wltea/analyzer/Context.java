@@ -4,9 +4,6 @@ import org.wltea.analyzer.dic.Dictionary;
 import org.wltea.analyzer.dic.Hit;
 import org.wltea.analyzer.seg.ISegmenter;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * 分词器上下文状态
  *
@@ -28,35 +25,71 @@ public class Context {
 	//字符串读取缓冲
 	private char[] segmentBuffer;
 	/*
-	 * 记录正在使用buffer的分词器对象
-	 * 如果set中存在有分词器对象，则buffer不能进行位移操作（处于locked状态）
+	 * 子分词器，下标即其在buffLocker中的位
+	 */
+	private final ISegmenter[] segmenters;
+	/*
+	 * 按位记录正在使用buffer的分词器对象
+	 * 如果有分词器对象的位，则buffer不能进行位移操作（处于locked状态）
 	 */
-	private Set<ISegmenter> buffLocker;
+	private int buffLocker;
 	/*
 	 * 词元结果集，为每次游标的移动，存储切分出来的词元
 	 */
-	private IKSortedLinkSet lexemeSet;
+	private IKLexemeArray lexemes;
+	/*
+	 * 本次分析使用的词典实例，词典重新加载时，已开始的分析仍使用原来的实例
+	 */
+	private Dictionary dictionary;
+	/*
+	 * 词典匹配复用的Hit，避免每次匹配新建对象
+	 */
+	private final Hit surNameHit = new Hit();
+	private final Hit prepositionHit = new Hit();
+	private final Hit stopWordHit = new Hit();
 
 
-	Context(char[] segmentBuffer, boolean isMaxWordLength) {
+	/**
+	 * @param segmenters 使用本上下文的子分词器，最多32个
+	 */
+	Context(char[] segmentBuffer, boolean isMaxWordLength, ISegmenter[] segmenters) {
+		if (segmenters.length > Integer.SIZE) {
+			throw new IllegalArgumentException("segmenters:" + segmenters.length);
+		}
 		this.isMaxWordLength = isMaxWordLength;
 		this.segmentBuffer = segmentBuffer;
-		this.buffLocker = new HashSet<>(4);
-		this.lexemeSet = new IKSortedLinkSet();
+		this.segmenters = segmenters;
+		this.lexemes = new IKLexemeArray();
+		this.dictionary = Dictionary.getInstance();
 	}
 
 	/**
 	 * 重置上下文
 	 */
 	public void resetContext() {
-		buffLocker.clear();
-		lexemeSet = new IKSortedLinkSet();
+		buffLocker = 0;
+		lexemes.clear();
 		buffOffset = 0;
 		available = 0;
 		lastAnalyzed = 0;
 		cursor = 0;
 	}
 
+	public Dictionary getDictionary() {
+		return dictionary;
+	}
+
+	void setDictionary(Dictionary dictionary) {
+		this.dictionary = dictionary;
+	}
+
+	/**
+	 * 缓冲区扩容后更换为新的缓冲区
+	 */
+	void setSegmentBuffer(char[] segmentBuffer) {
+		this.segmentBuffer = segmentBuffer;
+	}
+
 	public boolean isMaxWordLength() {
 		return isMaxWordLength;
 	}
@@ -86,18 +119,41 @@ public class Context {
 	}
 
 	public void lockBuffer(ISegmenter segmenter) {
-		this.buffLocker.add(segmenter);
+		this.buffLocker |= bitOf(segmenter);
 	}
 
 	public void unlockBuffer(ISegmenter segmenter) {
-		this.buffLocker.remove(segmenter);
+		this.buffLocker &= ~bitOf(segmenter);
 	}
 
 	/**
 	 * 只要buffLocker中存在ISegmenter对象则buffer被锁定
 	 */
 	public boolean isBufferLocked() {
-		return this.buffLocker.size() > 0;
+		return this.buffLocker != 0;
+	}
+
+	/**
+	 * 指定的子分词器是否锁定了buffer
+	 */
+	public boolean isBufferLocked(ISegmenter segmenter) {
+		return (this.buffLocker & bitOf(segmenter)) != 0;
+	}
+
+	/**
+	 * 锁定了buffer的子分词器，第i位对应构造时的第i个子分词器
+	 */
+	int getBufferLockers() {
+		return buffLocker;
+	}
+
+	private int bitOf(ISegmenter segmenter) {
+		for (int i = 0; i < segmenters.length; i++) {
+			if (segmenters[i] == segmenter) {
+				return 1 << i;
+			}
+		}
+		throw new IllegalArgumentException("unknown segmenter:" + segmenter);
 	}
 
 	public int getAvailable() {
@@ -109,54 +165,70 @@ public class Context {
 	}
 
 	public void pickNames() {
-		Lexeme element = lexemeSet.peekFirst();
-		while (element != null) {
-			if (element.getType() == Lexeme.Type.TYPE_CJK_SUR_NAME) {
-				int begin = element.getBegin();
-				int end = element.getBegin() + element.getLength();
+		lexemes.sort();
+		//人名加在末尾，只检查已有的词元
+		int count = lexemes.count();
+		for (int i = 0; i < count; i++) {
+			if (lexemes.getType(i) == Lexeme.Type.TYPE_CJK_SUR_NAME) {
+				int begin = lexemes.getBegin(i);
+				int end = begin + lexemes.getLength(i);
 				// 下一个字是否在其他lexeme中，并且不是姓,也不是前置词
-				Lexeme nextElement = element.getNext();
-				Hit surNameHit;
-				Hit prepositionHit;
-				if (nextElement != null) {
-					surNameHit = Dictionary.matchInSurnameDict(segmentBuffer, nextElement.getBegin(), 1);
-					prepositionHit = Dictionary.matchInPrepDict(segmentBuffer, nextElement.getBegin(), 1);
-					if (prepositionHit.isUnMatch() && surNameHit.isUnMatch() && end == nextElement.getBegin() && nextElement.getLength() == 1) {
-						end = nextElement.getEndPosition();
-						nextElement = nextElement.getNext();
+				int next = i + 1;
+				if (next < count) {
+					int nextBegin = lexemes.getBegin(next);
+					dictionary.getSurnameDict().matchInto(segmentBuffer, nextBegin, 1, surNameHit);
+					dictionary.getPrepDict().matchInto(segmentBuffer, nextBegin, 1, prepositionHit);
+					if (prepositionHit.isUnMatch() && surNameHit.isUnMatch() && end == nextBegin && lexemes.getLength(next) == 1) {
+						// 词元在文本中的结束位置
+						end = buffOffset + nextBegin + lexemes.getLength(next);
+						next++;
 						int nameLen = 1; // 名的长度(不包含姓)
-						if (nextElement != null) {
-							surNameHit = Dictionary.matchInSurnameDict(segmentBuffer, nextElement.getBegin(), 1);
-							prepositionHit = Dictionary.matchInPrepDict(segmentBuffer, nextElement.getBegin(), 1);
-							if (end == nextElement.getBegin() && nextElement.getLength() == 1) { // 是否在其他lexeme中，并且不是姓,也不是前置词
+						if (next < count) {
+							nextBegin = lexemes.getBegin(next);
+							dictionary.getSurnameDict().matchInto(segmentBuffer, nextBegin, 1, surNameHit);
+							dictionary.getPrepDict().matchInto(segmentBuffer, nextBegin, 1, prepositionHit);
+							if (end == nextBegin && lexemes.getLength(next) == 1) { // 是否在其他lexeme中，并且不是姓,也不是前置词
 								if (surNameHit.isUnMatch() && prepositionHit.isUnMatch()) {
 									nameLen = 2;
 								} else {
 									if (surNameHit.isPrefix()) { // 如果是前缀, 再往下看一个词
-										Hit hyphenatedNameHit = surNameHit.getMatchedDictSegment().match(segmentBuffer, nextElement.getBegin() + 1, 1);
-										if (hyphenatedNameHit.isUnMatch()) {
+										if (nextBegin + 1 >= available
+												|| Dictionary.matchWithHit(segmentBuffer, nextBegin + 1, surNameHit).isUnMatch()) {
 											nameLen = 2;
 										}
 									} else {
 										// 是姓, 但是后面没有其他字符
-										if (nextElement.getBegin() == available - 1) {
+										if (nextBegin == available - 1) {
 											nameLen = 2;
 										}
 									}
 								}
 							}
-							addName(begin, element.getLength() + nameLen);
+							addName(begin, lexemes.getLength(i) + nameLen);
 						}
 					}
 				}
 			}
-			element = element.getNext();
 		}
 	}
 
+	/**
+	 * 结果集末尾两个词元中是否有姓氏
+	 * 人名处理要看姓氏之后的两个词元，这时还不能确定是否组成人名
+	 */
+	boolean isNamePending() {
+		lexemes.sort();
+		int count = lexemes.count();
+		for (int i = Math.max(0, count - 2); i < count; i++) {
+			if (lexemes.getType(i) == Lexeme.Type.TYPE_CJK_SUR_NAME) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private void addName(int begin, int length) {
-		Lexeme newLexeme = new Lexeme(getBuffOffset(), begin, length, Lexeme.Type.TYPE_CJK_FULL_NAME);
-		addLexeme(newLexeme);
+		addLexeme(begin, length, Lexeme.Type.TYPE_CJK_FULL_NAME);
 	}
 
 	public String text(int begin, int length) {
@@ -166,11 +238,26 @@ public class Context {
 		return String.valueOf(segmentBuffer, begin, length);
 	}
 
+	/**
+	 * 开始一次新的缓冲区分析，清空上一次分析的词元
+	 * 分析和整理期间结果集中只有本次分析的词元
+	 */
+	void clearLexemes() {
+		this.lexemes.clear();
+	}
+
 	/**
 	 * 取出分词结果集中的首个词元
 	 */
 	public Lexeme firstLexeme() {
-		return this.lexemeSet.pollFirst();
+		return this.lexemes.pollFirstLexeme();
+	}
+
+	/**
+	 * 获取分词结果集，按下标读取词元不生成Lexeme对象
+	 */
+	IKLexemeArray getLexemes() {
+		return this.lexemes;
 	}
 
 	/**
@@ -180,8 +267,15 @@ public class Context {
 		if (lexeme == null) {
 			return;
 		}
-		if (!Dictionary.isStopWord(segmentBuffer, lexeme.getBegin(), lexeme.getLength())) {
-			this.lexemeSet.addLexeme(lexeme);
+		addLexeme(lexeme.getBegin(), lexeme.getLength(), lexeme.getType());
+	}
+
+	/**
+	 * 向分词结果集添加当前缓冲区中的词元，停止词不加入
+	 */
+	public void addLexeme(int begin, int length, Lexeme.Type type) {
+		if (!dictionary.getStopWords().matchInto(segmentBuffer, begin, length, stopWordHit).isMatch()) {
+			this.lexemes.add(buffOffset, begin, length, type);
 		}
 	}
 
@@ -189,7 +283,7 @@ public class Context {
 	 * 获取分词结果集大小
 	 */
 	public int getResultSize() {
-		return this.lexemeSet.size();
+		return this.lexemes.size();
 	}
 
 	/**
@@ -197,6 +291,6 @@ public class Context {
 	 * 进行最大切分的时候，过滤长度较小的交叠词元
 	 */
 	public void excludeOverlap() {
-		this.lexemeSet.excludeOverlap();
+		this.lexemes.excludeOverlap();
 	}
 }
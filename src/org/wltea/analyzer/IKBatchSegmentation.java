@@ -0,0 +1,256 @@
+package org.wltea.analyzer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 批量分词
+ * 将一批文本在ForkJoinPool中并行分词，结果按输入顺序返回。
+ * 文本区间递归二分为子任务，长短不均时由空闲线程窃取剩余的子任务；
+ * 每个工作线程通过IKSegmentationPool复用各自的IKSegmentation实例
+ * <p/>
+ * 单个文本只在一个线程中处理，不会被拆分；长文本可以通过segmentDocument在多个线程中分段切分
+ */
+public final class IKBatchSegmentation {
+
+	//子任务不再拆分的文本数
+	private static final int LEAF_SIZE = 16;
+
+	//长文本切分时，子任务不再拆分的缓冲区段数
+	private static final int LEAF_PASSES = 4;
+
+	private IKBatchSegmentation() {
+	}
+
+	/**
+	 * 使用默认的ForkJoinPool（并行度为CPU核数）批量分词
+	 *
+	 * @param texts
+	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
+	 * @return 每个文本的词元列表，与texts顺序一致
+	 */
+	public static List<List<Lexeme>> segment(List<String> texts, boolean isMaxWordLength) {
+		return segment(texts, isMaxWordLength, DefaultPool.POOL);
+	}
+
+	/**
+	 * 在指定的ForkJoinPool中批量分词
+	 *
+	 * @param texts
+	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
+	 * @param pool
+	 * @return 每个文本的词元列表，与texts顺序一致
+	 */
+	public static List<List<Lexeme>> segment(List<String> texts, boolean isMaxWordLength, ForkJoinPool pool) {
+		List<List<Lexeme>> results = newResults(texts.size());
+		if (texts.size() > 0) {
+			pool.invoke(new SegmentTask(texts, isMaxWordLength, results, 0, texts.size()));
+		}
+		return results;
+	}
+
+	/**
+	 * 在指定的ForkJoinPool中批量分词
+	 *
+	 * @param texts
+	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
+	 * @param pool
+	 * @return 每个文本的词元列表，与texts顺序一致
+	 */
+	public static List<List<Lexeme>> segment(String[] texts, boolean isMaxWordLength, ForkJoinPool pool) {
+		return segment(Arrays.asList(texts), isMaxWordLength, pool);
+	}
+
+	/**
+	 * 使用默认的ForkJoinPool（并行度为CPU核数）切分一个长文本
+	 *
+	 * @param text
+	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
+	 * @return 词元列表
+	 */
+	public static List<Lexeme> segmentDocument(CharSequence text, boolean isMaxWordLength) {
+		return segmentDocument(text, isMaxWordLength, DefaultPool.POOL);
+	}
+
+	/**
+	 * 在指定的ForkJoinPool中切分一个长文本
+	 * IKSegmentation每次分析一个缓冲区，在临界区内没有子分词器占用缓冲区的位置中断，
+	 * 人名识别和交叠词元的过滤也只在一个缓冲区内进行。
+	 * 这里在调用线程中先算出各次分析的起点：只需从临界区之前最后一个换行、空格或句末标点处
+	 * 试分析到临界区（缓冲区扩容时到扩容后的临界区）即可找到中断位置；各段再并行分析，按顺序合并。
+	 * 结果（包括词元的位置）与用IKSegmentation顺序切分整个文本相同
+	 *
+	 * @param document
+	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
+	 * @param pool
+	 * @return 词元列表
+	 */
+	public static List<Lexeme> segmentDocument(CharSequence document, boolean isMaxWordLength, ForkJoinPool pool) {
+		String text = document.toString();
+		int[] begins = analyzeBegins(text, isMaxWordLength);
+		int passes = begins.length - 1;
+		List<List<Lexeme>> results = newResults(passes);
+		if (passes > 0) {
+			pool.invoke(new DocumentTask(text, isMaxWordLength, begins, results, 0, passes));
+		}
+		List<Lexeme> lexemes = new ArrayList<>();
+		for (List<Lexeme> result : results) {
+			if (result == null) {
+				//某一段的实际中断位置与预先算出的不一致，整个文本顺序切分
+				return segmentSerially(text, isMaxWordLength);
+			}
+			lexemes.addAll(result);
+		}
+		return lexemes;
+	}
+
+	/**
+	 * 计算各次分析的起点，末尾为文本长度
+	 */
+	private static int[] analyzeBegins(String text, boolean isMaxWordLength) {
+		IKSegmentation segmentation = IKSegmentationPool.get(isMaxWordLength);
+		int[] begins = new int[16];
+		int count = 0;
+		int begin = 0;
+		while (true) {
+			if (count == begins.length) {
+				begins = Arrays.copyOf(begins, count * 2);
+			}
+			begins[count++] = begin;
+			if (begin == text.length()) {
+				break;
+			}
+			begin = segmentation.nextBegin(text, begin);
+		}
+		return Arrays.copyOf(begins, count);
+	}
+
+	private static List<Lexeme> segmentSerially(String text, boolean isMaxWordLength) {
+		try {
+			IKSegmentation segmentation = IKSegmentationPool.get(text, isMaxWordLength);
+			List<Lexeme> lexemes = new ArrayList<>();
+			Lexeme lexeme;
+			while ((lexeme = segmentation.next()) != null) {
+				lexemes.add(lexeme);
+			}
+			return lexemes;
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	/**
+	 * 各子任务按下标写入结果的列表，初始为null
+	 */
+	private static List<List<Lexeme>> newResults(int size) {
+		return new ArrayList<>(Collections.<List<Lexeme>>nCopies(size, null));
+	}
+
+	/**
+	 * 对texts[from, to)分词
+	 */
+	private static class SegmentTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> texts;
+
+		private final boolean isMaxWordLength;
+
+		private final List<List<Lexeme>> results;
+
+		private final int from;
+
+		private final int to;
+
+		SegmentTask(List<String> texts, boolean isMaxWordLength, List<List<Lexeme>> results, int from, int to) {
+			this.texts = texts;
+			this.isMaxWordLength = isMaxWordLength;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > LEAF_SIZE) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new SegmentTask(texts, isMaxWordLength, results, from, middle),
+						new SegmentTask(texts, isMaxWordLength, results, middle, to));
+				return;
+			}
+			//叶子任务内不等待其他任务，线程复用的实例在取出后连续使用完毕
+			try {
+				for (int i = from; i < to; i++) {
+					IKSegmentation segmentation = IKSegmentationPool.get(texts.get(i), isMaxWordLength);
+					List<Lexeme> lexemes = new ArrayList<>();
+					Lexeme lexeme;
+					while ((lexeme = segmentation.next()) != null) {
+						lexemes.add(lexeme);
+					}
+					results.set(i, lexemes);
+				}
+			} catch (IOException ex) {
+				throw new RuntimeException(ex);
+			}
+		}
+	}
+
+	/**
+	 * 分析长文本中的第[from, to)段
+	 */
+	private static class DocumentTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String text;
+
+		private final boolean isMaxWordLength;
+
+		private final int[] begins;
+
+		private final List<List<Lexeme>> results;
+
+		private final int from;
+
+		private final int to;
+
+		DocumentTask(String text, boolean isMaxWordLength, int[] begins, List<List<Lexeme>> results, int from, int to) {
+			this.text = text;
+			this.isMaxWordLength = isMaxWordLength;
+			this.begins = begins;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > LEAF_PASSES) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new DocumentTask(text, isMaxWordLength, begins, results, from, middle),
+						new DocumentTask(text, isMaxWordLength, begins, results, middle, to));
+				return;
+			}
+			IKSegmentation segmentation = IKSegmentationPool.get(isMaxWordLength);
+			for (int i = from; i < to; i++) {
+				List<Lexeme> lexemes = new ArrayList<>();
+				int analyzed = segmentation.analyze(text, begins[i], lexemes);
+				//中断位置不一致时不记录结果
+				results.set(i, analyzed == begins[i + 1] - begins[i] ? lexemes : null);
+			}
+		}
+	}
+
+	/**
+	 * 默认的ForkJoinPool，首次使用时创建
+	 */
+	private static class DefaultPool {
+		private static final ForkJoinPool POOL = new ForkJoinPool();
+	}
+}
@@ -0,0 +1,179 @@
+package org.wltea.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * 一次缓冲区分析的词元结果集
+ * 词元的起始位置、长度和类型存放在可扩容的基本类型数组中，子分词器基本按顺序追加，
+ * 需要有序时一次插入排序：起始位置优先，起始位置相同时长词在前，完全相同的词元保持加入的先后。
+ * 每次分析开始前由Context清空，分析和整理期间下标[0, count())即本次分析的全部词元，
+ * 整理完成后才开始取出
+ */
+final class IKLexemeArray {
+
+	private static final Lexeme.Type[] TYPES = Lexeme.Type.values();
+
+	private static final int INITIAL_CAPACITY = 256;
+
+	//词元的起始位移，同一次分析中的词元都相同
+	private int offset;
+
+	//词元的相对起始位置
+	private int[] begins = new int[INITIAL_CAPACITY];
+
+	//词元的长度
+	private int[] lengths = new int[INITIAL_CAPACITY];
+
+	//词元类型的序号
+	private byte[] types = new byte[INITIAL_CAPACITY];
+
+	//词元数目
+	private int count;
+
+	//已取出的词元数目
+	private int polled;
+
+	//[0, count)是否已经有序
+	private boolean sorted = true;
+
+	/**
+	 * 追加词元
+	 */
+	void add(int offset, int begin, int length, Lexeme.Type type) {
+		if (count == begins.length) {
+			int capacity = count * 2;
+			begins = Arrays.copyOf(begins, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			types = Arrays.copyOf(types, capacity);
+		}
+		this.offset = offset;
+		begins[count] = begin;
+		lengths[count] = length;
+		types[count] = (byte) type.ordinal();
+		if (sorted && count > 0 && compare(count - 1, begin, length) > 0) {
+			sorted = false;
+		}
+		count++;
+	}
+
+	/**
+	 * 按顺序排列全部词元
+	 */
+	void sort() {
+		if (sorted) {
+			return;
+		}
+		for (int i = 1; i < count; i++) {
+			int begin = begins[i];
+			int length = lengths[i];
+			byte type = types[i];
+			int j = i - 1;
+			//相同的词元不移动，保持加入的先后
+			while (j >= 0 && compare(j, begin, length) > 0) {
+				begins[j + 1] = begins[j];
+				lengths[j + 1] = lengths[j];
+				types[j + 1] = types[j];
+				j--;
+			}
+			begins[j + 1] = begin;
+			lengths[j + 1] = length;
+			types[j + 1] = type;
+		}
+		sorted = true;
+	}
+
+	/**
+	 * 比较index处的词元与(begin, length)，规则同Lexeme.compareTo
+	 */
+	private int compare(int index, int begin, int length) {
+		if (begins[index] != begin) {
+			return begins[index] < begin ? -1 : 1;
+		}
+		return length == lengths[index] ? 0 : (lengths[index] > length ? -1 : 1);
+	}
+
+	/**
+	 * 剔除相邻的完全交叠（彼此包含）的词元
+	 * 进行最大切分的时候，保留长度较大的词元，书名优先于其他词元，规则同Lexeme.isOverlap和isImportantThan
+	 */
+	void excludeOverlap() {
+		sort();
+		if (count < 2) {
+			return;
+		}
+		int one = 0;
+		for (int another = 1; another < count; another++) {
+			int oneEnd = begins[one] + lengths[one];
+			int anotherEnd = begins[another] + lengths[another];
+			boolean overlap = begins[one] <= begins[another] && oneEnd >= anotherEnd
+					|| begins[one] >= begins[another] && oneEnd <= anotherEnd;
+			if (!overlap) {
+				one++;
+			} else if (types[another] != Lexeme.Type.TYPE_BOOK_TITLE.ordinal()) {
+				//删掉another
+				continue;
+			}
+			//another移到one的位置，交叠时即删掉one
+			begins[one] = begins[another];
+			lengths[one] = lengths[another];
+			types[one] = types[another];
+		}
+		count = one + 1;
+	}
+
+	/**
+	 * 取出首个词元
+	 *
+	 * @return 词元的下标，没有词元返回-1
+	 */
+	int pollFirst() {
+		sort();
+		return polled < count ? polled++ : -1;
+	}
+
+	/**
+	 * 取出首个词元
+	 *
+	 * @return 没有词元返回null
+	 */
+	Lexeme pollFirstLexeme() {
+		int index = pollFirst();
+		return index < 0 ? null : new Lexeme(offset, begins[index], lengths[index], TYPES[types[index]]);
+	}
+
+	int getOffset() {
+		return offset;
+	}
+
+	int getBegin(int index) {
+		return begins[index];
+	}
+
+	int getLength(int index) {
+		return lengths[index];
+	}
+
+	Lexeme.Type getType(int index) {
+		return TYPES[types[index]];
+	}
+
+	/**
+	 * 尚未取出的词元数目
+	 */
+	int size() {
+		return count - polled;
+	}
+
+	/**
+	 * 本次分析的词元总数，包括已取出的，词元下标小于该值
+	 */
+	int count() {
+		return count;
+	}
+
+	void clear() {
+		count = 0;
+		polled = 0;
+		sorted = true;
+	}
+}
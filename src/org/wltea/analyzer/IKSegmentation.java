@@ -1,17 +1,28 @@
 package org.wltea.analyzer;
 
 import org.wltea.analyzer.cfg.Configuration;
+import org.wltea.analyzer.dic.Dictionary;
+import org.wltea.analyzer.help.CharBufferReader;
 import org.wltea.analyzer.help.CharacterHelper;
+import org.wltea.analyzer.seg.ICharTypeSegmenter;
 import org.wltea.analyzer.seg.ISegmenter;
 
+import java.io.CharArrayReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * IK Analyzer v3.2
  * IK主分词器
  * 注：IKSegmentation是一个lucene无关的通用分词器
+ * <p/>
+ * IKSegmentation不是线程安全的，每个线程使用各自的实例；
+ * 需要反复分词的场景可以通过IKSegmentationPool取得线程内复用的实例。
+ * 大文件可以通过org.wltea.analyzer.help.MappedFileReader内存映射读入，直接解码到分词缓冲区
  *
  * @author 林良益
  */
@@ -19,16 +30,38 @@ public final class IKSegmentation {
 
 
 	private Reader input;
-	//默认缓冲区大小
-	private static final int BUFF_SIZE = 3072;
+	//缓冲区大小，每次分析从这个大小开始
+	private final int buffSize;
 	//缓冲区耗尽的临界值
-	private static final int BUFF_EXHAUST_CRITICAL = 48;
+	private final int buffExhaustCritical;
+	//缓冲区的最大大小
+	private final int maxBuffSize;
+	//换行、空格和句末标点（规格化后），处理后中文、字母和数量词子分词器都回到初始状态
+	private static final String RESET_CHARS = "\n\r 。!?";
+	//书名的最大字数
+	private static final int BOOK_TITLE_LIMIT = 20;
+	//推送分词时，子分词器向后查看（双字姓氏、后缀词）不超过的字符数，最后推入的这些字符留到下一次推入时处理
+	private static final int STREAM_LOOKAHEAD = 16;
 	//字符串读取缓冲
 	private char[] segmentBuff;
+	//推送分词时，缓冲区起点在整个推入的文本中的位置
+	private int streamOffset;
+	//推送分词时，下一个待处理的字符在缓冲区中的位置
+	private int streamCursor;
+	//推送分词时，之前的词元都已输出的位置
+	private int streamCut;
+	//按UTF-8字节分词时的输入，其他时候为null
+	private Utf8Decoder utf8;
+	//按UTF-8字节分词时，缓冲区中每个字符在输入中的字节位置，最后一个字符之后多记录一个位置
+	private int[] byteOffsets;
 	//分词器上下文
 	private Context context;
 	//分词处理器列表
-	private List<ISegmenter> segmenters;
+	private ISegmenter[] segmenters;
+	//各分词处理器处理的字符类别，未声明的为全部类别
+	private int[] segmenterCharTypes;
+	//全部分词处理器处理的字符类别
+	private int acceptedCharTypes;
 
 	/**
 	 * IK主分词器构造函数
@@ -47,10 +80,52 @@ public final class IKSegmentation {
 	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
 	 */
 	public IKSegmentation(Reader input, boolean isMaxWordLength) {
+		this(input, isMaxWordLength, Configuration.getBuffSize(), Configuration.getBuffExhaustCritical(),
+				Configuration.getMaxBuffSize());
+	}
+
+	/**
+	 * IK主分词器构造函数
+	 * 从input的当前位置读到limit，字符直接复制到分词缓冲区，不改变input的位置
+	 *
+	 * @param input
+	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
+	 */
+	public IKSegmentation(CharBuffer input, boolean isMaxWordLength) {
+		this(new CharBufferReader(input), isMaxWordLength);
+	}
+
+	/**
+	 * IK主分词器构造函数
+	 * 每次分析读入buffSize个字符，分析到末尾buffExhaustCritical个字符的临界区内时，
+	 * 在没有子分词器占用缓冲区的位置中断；直到末尾仍被占用（如很长的URL、连续的字母或数字）时，
+	 * 缓冲区成倍扩容并继续读入，直到maxBuffSize为止，超出部分才被截断
+	 *
+	 * @param input
+	 * @param isMaxWordLength     当为true时，分词器进行最大词长切分
+	 * @param buffSize            缓冲区大小
+	 * @param buffExhaustCritical 缓冲区耗尽的临界值，大于2并且小于buffSize
+	 * @param maxBuffSize         缓冲区的最大大小，等于buffSize时不扩容
+	 */
+	public IKSegmentation(Reader input, boolean isMaxWordLength, int buffSize, int buffExhaustCritical, int maxBuffSize) {
+		if (buffExhaustCritical <= 2 || buffSize <= buffExhaustCritical || maxBuffSize < buffSize) {
+			throw new IllegalArgumentException("buffSize:" + buffSize + ",buffExhaustCritical:" + buffExhaustCritical
+					+ ",maxBuffSize:" + maxBuffSize);
+		}
 		this.input = input;
-		segmentBuff = new char[BUFF_SIZE];
-		context = new Context(segmentBuff, isMaxWordLength);
-		segmenters = Configuration.loadSegmenter();
+		this.buffSize = buffSize;
+		this.buffExhaustCritical = buffExhaustCritical;
+		this.maxBuffSize = maxBuffSize;
+		segmentBuff = new char[buffSize];
+		List<ISegmenter> segmenterList = Configuration.loadSegmenter();
+		segmenters = segmenterList.toArray(new ISegmenter[segmenterList.size()]);
+		segmenterCharTypes = new int[segmenters.length];
+		for (int i = 0; i < segmenters.length; i++) {
+			segmenterCharTypes[i] = segmenters[i] instanceof ICharTypeSegmenter
+					? ((ICharTypeSegmenter) segmenters[i]).acceptedCharTypes() : -1;
+			acceptedCharTypes |= segmenterCharTypes[i];
+		}
+		context = new Context(segmentBuff, isMaxWordLength, segmenters);
 	}
 
 	/**
@@ -59,107 +134,507 @@ public final class IKSegmentation {
 	 * @return 没有更多的词元，则返回null
 	 * @throws IOException
 	 */
-	public synchronized Lexeme next() throws IOException {
-		if (context.getResultSize() == 0) {
+	public Lexeme next() throws IOException {
+		return buildLexeme(nextLexeme());
+	}
+
+	/**
+	 * 获取下一个语义单元，不生成词元文本
+	 * 词元的文本通过Lexeme.getText()或copyText()直接读取分词缓冲区，只在下一次取词元之前有效；
+	 * 之后仍需要文本时，在此之前调用Lexeme.getLexemeText()生成
+	 *
+	 * @return 没有更多的词元，则返回null
+	 * @throws IOException
+	 */
+	public Lexeme nextView() throws IOException {
+		Lexeme lexeme = nextLexeme();
+		if (lexeme != null) {
+			lexeme.setBuffer(segmentBuff);
+		}
+		return lexeme;
+	}
+
+	/**
+	 * 对text[off, off + len)分词，按顺序把每个词元推送给sink
+	 * 分段与切分结果同next()一致；直接读取结果集，不生成词元对象和词元文本
+	 * <p/>
+	 * 调用后如需继续按Reader分词，先调用reset(Reader)
+	 *
+	 * @param text
+	 * @param off
+	 * @param len
+	 * @param sink
+	 */
+	public void segment(char[] text, int off, int len, TokenSink sink) {
+		reset(new CharArrayReader(text, off, len));
+		try {
+			while (analyzeNext() > 0) {
+				drain(sink, off);
+			}
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+		input = null;
+	}
+
+	/**
+	 * 按顺序把结果集中的词元推送给sink，词元位置加上off
+	 */
+	private void drain(TokenSink sink, int off) {
+		IKLexemeArray lexemes = context.getLexemes();
+		int index;
+		while ((index = lexemes.pollFirst()) >= 0) {
+			int lexemeBegin = lexemes.getBegin(index);
+			sink.token(segmentBuff, lexemeBegin, lexemes.getLength(index),
+					off + lexemes.getOffset() + lexemeBegin, lexemes.getType(index));
+		}
+	}
+
+	/**
+	 * 推送分词：推入text[off, off + len)，把已经确定的词元按顺序推送给sink，不阻塞等待后续输入
+	 * 子分词器的状态在推入之间保持；处理到换行、空格或句末标点，并且没有子分词器占用缓冲区、
+	 * 也没有等待之后的词元确定的姓氏时，之前的词元不会再受后续输入影响，立即输出。
+	 * 连续buffSize个字符没有这样的位置时，在任意没有子分词器占用缓冲区的位置输出；
+	 * 直到maxBuffSize个字符仍被占用时截断，同next()。
+	 * 最后推入的STREAM_LOOKAHEAD个字符留到下一次推入或finish时处理
+	 * <p/>
+	 * 切分结果与推入的分段方式无关；词元位置为在整个推入的文本中的位置。
+	 * 文本在next()的一次缓冲区分析之内时，切分结果与next()相同；更长的文本分段位置不同，
+	 * 并且next()在第一次之后的缓冲区分析中通常只识别单字名，人名词元（TYPE_CJK_FULL_NAME）
+	 * 及随之变化的未知词、数量词可能与next()不同。
+	 * 推送分词期间不能调用next()，finish之后可以开始新的推送
+	 *
+	 * @param text
+	 * @param off
+	 * @param len
+	 * @param sink
+	 */
+	public void feed(char[] text, int off, int len, TokenSink sink) {
+		int available = context.getAvailable();
+		if (available + len > segmentBuff.length) {
+			if (streamCut > 0) {
+				compact();
+				available = context.getAvailable();
+			}
+			if (available + len > segmentBuff.length) {
+				segmentBuff = Arrays.copyOf(segmentBuff, Math.max(segmentBuff.length * 2, available + len));
+				context.setSegmentBuffer(segmentBuff);
+			}
+		}
+		//推入时规格化，压缩缓冲区后重新处理的字符不会再次规格化
+		for (int i = 0; i < len; i++) {
+			segmentBuff[available + i] = CharacterHelper.regularize(text[off + i]);
+		}
+		context.setAvailable(available + len);
+		advance(STREAM_LOOKAHEAD, sink);
+	}
+
+	/**
+	 * 结束推送分词：处理剩余的字符，输出全部词元，然后重置到初始状态
+	 *
+	 * @param sink
+	 */
+	public void finish(TokenSink sink) {
+		advance(0, sink);
+		cut(sink);
+		reset(input);
+	}
+
+	/**
+	 * 推送分词时，由子分词器处理缓冲区中除最后lookahead个以外的字符，在确定的位置输出词元
+	 */
+	private void advance(int lookahead, TokenSink sink) {
+		while (streamCursor < context.getAvailable() - lookahead) {
+			//上次输出之后处理过的字符数
+			int pending = streamCursor - streamCut;
+			int available = context.getAvailable();
+			if (pending == maxBuffSize - 1) {
+				//一直被占用，当作缓冲区末尾处理，子分词器输出已有的词元
+				context.setAvailable(streamCursor + 1);
+			}
+			segmentChar(streamCursor);
+			context.setAvailable(available);
+			streamCursor++;
+			if (pending == maxBuffSize - 1) {
+				cut(sink);
+				compact();
+			} else if (!context.isBufferLocked()
+					&& (pending >= buffSize - buffExhaustCritical
+					|| RESET_CHARS.indexOf(segmentBuff[streamCursor - 1]) >= 0 && !isNamePending())) {
+				cut(sink);
+			}
+		}
+	}
+
+	/**
+	 * 推送分词时，是否有姓氏要等待之后的词元才能确定是否组成人名
+	 * 最大切分时先过滤交叠的词元，同输出时人名处理之前的过滤
+	 */
+	private boolean isNamePending() {
+		if (context.isMaxWordLength()) {
+			context.excludeOverlap();
+		}
+		return context.isNamePending();
+	}
+
+	/**
+	 * 推送分词时，整理并输出已处理的字符中的词元
+	 */
+	private void cut(TokenSink sink) {
+		// 如果使用最大切分，则过滤交叠的短词元
+		if (context.isMaxWordLength()) {
+			context.excludeOverlap();
+		}
+		// 人名处理
+		context.pickNames();
+		// 经过人名处理之后可能又有重叠，再处理重叠
+		if (context.isMaxWordLength()) {
+			context.excludeOverlap();
+		}
+		drain(sink, streamOffset);
+		context.clearLexemes();
+		streamCut = streamCursor;
+		//输出之后取当前生效的词典
+		context.setDictionary(Dictionary.getInstance());
+	}
+
+	/**
+	 * 推送分词时，丢弃缓冲区中已输出的字符
+	 * 之后已处理的字符在子分词器重置后重新处理，这些字符中尚未输出的词元也一并丢弃
+	 */
+	private void compact() {
+		int available = context.getAvailable();
+		System.arraycopy(segmentBuff, streamCut, segmentBuff, 0, available - streamCut);
+		streamOffset += streamCut;
+		context.setAvailable(available - streamCut);
+		context.clearLexemes();
+		for (ISegmenter segmenter : segmenters) {
+			segmenter.reset();
+		}
+		streamCursor = 0;
+		streamCut = 0;
+	}
+
+	/**
+	 * 对UTF-8编码的utf8[off, off + len)分词，按顺序把每个词元推送给sink，词元位置为字节位置
+	 * 字节在分析时逐段解码到分词缓冲区，不生成整个输入的String或char[]；
+	 * 分段与切分结果同对解码后的字符分词一致，非法的字节逐个替换为U+FFFD
+	 * <p/>
+	 * 调用后如需继续按Reader分词，先调用reset(Reader)
+	 *
+	 * @param utf8
+	 * @param off
+	 * @param len
+	 * @param sink
+	 */
+	public void segment(byte[] utf8, int off, int len, Utf8TokenSink sink) {
+		reset((Reader) null);
+		if (byteOffsets == null || byteOffsets.length <= segmentBuff.length) {
+			byteOffsets = new int[segmentBuff.length + 1];
+		}
+		this.utf8 = new Utf8Decoder(utf8, off, len);
+		try {
+			while (analyzeNext() > 0) {
+				IKLexemeArray lexemes = context.getLexemes();
+				int index;
+				while ((index = lexemes.pollFirst()) >= 0) {
+					int lexemeBegin = lexemes.getBegin(index);
+					int lexemeEnd = lexemeBegin + lexemes.getLength(index);
+					sink.token(segmentBuff, lexemeBegin, lexemes.getLength(index),
+							byteOffsets[lexemeBegin], byteOffsets[lexemeEnd] - byteOffsets[lexemeBegin], lexemes.getType(index));
+				}
+			}
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		} finally {
+			this.utf8 = null;
+		}
+	}
+
+	/**
+	 * 取出下一个词元，词元池为空时分析下一段缓冲区
+	 */
+	private Lexeme nextLexeme() throws IOException {
+		if (context.getResultSize() == 0 && analyzeNext() <= 0) {
+			return null;
+		}
+		//读取词元池中的词元
+		return context.firstLexeme();
+	}
+
+	/**
+	 * 从input读入并分析下一段缓冲区
+	 *
+	 * @return 缓冲区中可处理的字符长度，没有更多的字符返回0或-1
+	 */
+	private int analyzeNext() throws IOException {
+		//每次分析新的缓冲区时取当前生效的词典，分析过程中词典被重新加载也不受影响
+		context.setDictionary(Dictionary.getInstance());
+		/*
+		 * 从reader中读取数据，填充buffer
+		 * 如果reader是分次读入buffer的，那么buffer要进行移位处理
+		 * 移位处理上次读入的但未处理的数据
+		 */
+		int available = fillBuffer();
+
+		if (available <= 0) {
+			context.resetContext();
+		} else {
+			//分词处理
+			int analyzedLength = analyze(available);
+
+			// 记录最近一次分析的字符长度
+			context.setLastAnalyzed(analyzedLength);
+
+			// 同时累计已分析的字符长度
+			context.setBuffOffset(context.getBuffOffset() + analyzedLength);
+		}
+		return available;
+	}
+
+	/**
+	 * 分析缓冲区中的available个字符，并整理结果集
+	 *
+	 * @return 本次分析的字符长度
+	 */
+	private int analyze(int available) throws IOException {
+		context.clearLexemes();
+		int analyzedLength = scan(available, 0);
+
+		for (ISegmenter segmenter : segmenters) {
+			segmenter.reset();
+		}
+
+		// 如果使用最大切分，则过滤交叠的短词元
+		if (context.isMaxWordLength()) {
+			context.excludeOverlap();
+		}
+
+		// 人名处理
+		context.pickNames();
+
+		// 经过人名处理之后可能又有重叠，再处理重叠
+		if (context.isMaxWordLength()) {
+			context.excludeOverlap();
+		}
+		return analyzedLength;
+	}
+
+	/**
+	 * 由子分词器处理缓冲区中的available个字符
+	 * 缓冲区起点位于本次分析的起点之后skipped个字符处，正常分析时为0。
+	 * 进入临界区后，只要没有子分词器锁定缓冲区即中断，剩余的字符留到下一次分析；
+	 * 分析到缓冲区倒数第二个字符仍被锁定时，缓冲区成倍扩容并从input继续读入，临界区随之后移
+	 *
+	 * @return 本次分析的字符长度
+	 */
+	private int scan(int available, int skipped) throws IOException {
+		//本次分析的缓冲区大小
+		int passSize = buffSize;
+		int analyzedLength = 0;
+		for (int buffIndex = 0; buffIndex < available; buffIndex++) {
+			analyzeChar(buffIndex);
+			analyzedLength++;
+			//换算为在本次分析中的位置
+			int index = skipped + buffIndex;
+			int total = skipped + available;
 			/*
-			 * 从reader中读取数据，填充buffer
-			 * 如果reader是分次读入buffer的，那么buffer要进行移位处理
-			 * 移位处理上次读入的但未处理的数据
+			 * 满足以下条件时，
+			 * 1.total == passSize 表示buffer满载
+			 * 2.index < total - 1 && index > total - buffExhaustCritical表示当前指针处于临界区内
+			 * 3.!context.isBufferLocked()表示没有segmenter在占用buffer
+			 * 要中断当前循环（buffer要进行移位，并再读取数据的操作）
 			 */
-			int available = fillBuffer(input);
-
-			if (available <= 0) {
-				context.resetContext();
-				return null;
-			} else {
-				//分词处理
-				int analyzedLength = 0;
-				for (int buffIndex = 0; buffIndex < available; buffIndex++) {
-					//移动缓冲区指针
-					context.setCursor(buffIndex); // 再一个字的处理中, cursor位置不变
-					//进行字符规格化（全角转半角，大写转小写处理）
-					char c = CharacterHelper.regularize(segmentBuff[buffIndex]);
-					segmentBuff[buffIndex] = c;
-
-					//遍历子分词器
-					for (ISegmenter segmenter : segmenters) {
-						segmenter.nextLexeme(segmentBuff, context);
-					}
-					analyzedLength++;
-					/*
-	    			 * 满足以下条件时，
-        			 * 1.available == BUFF_SIZE 表示buffer满载
-        			 * 2.buffIndex < available - 1 && buffIndex > available - BUFF_EXHAUST_CRITICAL表示当前指针处于临界区内
-        			 * 3.!context.isBufferLocked()表示没有segmenter在占用buffer
-        			 * 要中断当前循环（buffer要进行移位，并再读取数据的操作）
-        			 */
-					if (available == BUFF_SIZE
-							&& buffIndex < available - 1
-							&& buffIndex > available - BUFF_EXHAUST_CRITICAL
-							&& !context.isBufferLocked()) {
-						break;
-					}
+			if (total == passSize && index < total - 1) {
+				if (index > total - buffExhaustCritical && !context.isBufferLocked()) {
+					break;
 				}
-
-				for (ISegmenter segmenter : segmenters) {
-					segmenter.reset();
+				if (index == total - 2 && passSize < maxBuffSize && context.isBufferLocked()) {
+					passSize = (int) Math.min(maxBuffSize, passSize * 2L);
+					available = grow(available, passSize - skipped);
 				}
+			}
+		}
+		return analyzedLength;
+	}
 
-				// 如果使用最大切分，则过滤交叠的短词元
-				if (context.isMaxWordLength()) {
-					context.excludeOverlap();
-				}
+	/**
+	 * 缓冲区扩容到capacity，从input继续读入
+	 *
+	 * @return 缓冲区中可处理的字符长度
+	 */
+	private int grow(int available, int capacity) throws IOException {
+		if (segmentBuff.length < capacity) {
+			segmentBuff = Arrays.copyOf(segmentBuff, capacity);
+			context.setSegmentBuffer(segmentBuff);
+			if (utf8 != null) {
+				byteOffsets = Arrays.copyOf(byteOffsets, capacity + 1);
+			}
+		}
+		int read = read(available, capacity - available);
+		if (read > 0) {
+			available += read;
+			context.setAvailable(available);
+		}
+		return available;
+	}
+
+	/**
+	 * 由全部子分词器处理缓冲区buffIndex处的字符
+	 */
+	private void analyzeChar(int buffIndex) {
+		//进行字符规格化（全角转半角，大写转小写处理）
+		segmentBuff[buffIndex] = CharacterHelper.regularize(segmentBuff[buffIndex]);
+		segmentChar(buffIndex);
+	}
 
-				// 人名处理
-				context.pickNames();
+	/**
+	 * 由子分词器处理缓冲区buffIndex处已经规格化的字符
+	 * 只交给处理该字符类别的子分词器，以及锁定了缓冲区、正在处理词元的子分词器；
+	 * 连续的一段字符都没有子分词器处理时直接跳过。
+	 * 缓冲区中断和扩容的判断需要逐个位置进行，跳过一个字符只需一次查表和两次位运算，因此逐字符分派
+	 */
+	private void segmentChar(int buffIndex) {
+		//移动缓冲区指针
+		context.setCursor(buffIndex); // 再一个字的处理中, cursor位置不变
 
-				// 经过人名处理之后可能又有重叠，再处理重叠
-				if (context.isMaxWordLength()) {
-					context.excludeOverlap();
-				}
+		int charType = CharacterHelper.charType(segmentBuff[buffIndex]);
+		int lockers = context.getBufferLockers();
+		if ((charType & acceptedCharTypes) == 0 && lockers == 0) {
+			return;
+		}
+		//遍历子分词器，锁定状态取处理前的，之前的子分词器不会改变之后的子分词器的锁定状态
+		for (int i = 0; i < segmenters.length; i++) {
+			if ((charType & segmenterCharTypes[i]) != 0 || (lockers & 1 << i) != 0) {
+				segmenters[i].nextLexeme(segmentBuff, context);
+			}
+		}
+	}
 
-				// 记录最近一次分析的字符长度
-				context.setLastAnalyzed(analyzedLength);
+	/**
+	 * 以text的begin处为缓冲区起点做一次分析，与next()从Reader读到begin处时的分析相同
+	 * 词元按顺序追加到lexemes中
+	 *
+	 * @return 本次分析的字符长度
+	 */
+	int analyze(String text, int begin, List<Lexeme> lexemes) {
+		try {
+			int analyzedLength = analyze(load(text, begin, begin));
+			Lexeme lexeme;
+			while ((lexeme = buildLexeme(context.firstLexeme())) != null) {
+				lexemes.add(lexeme);
+			}
+			return analyzedLength;
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		} finally {
+			reset((Reader) null);
+		}
+	}
 
-				// 同时累计已分析的字符长度
-				context.setBuffOffset(context.getBuffOffset() + analyzedLength);
+	/**
+	 * 计算以text的begin处为起点的一次分析结束后，下一次分析的起点
+	 * 与next()从Reader中逐段读取text时的分段一致
+	 * <p/>
+	 * 从临界区之前的重置位置开始试分析，要求缓冲区分析到该位置时各子分词器都已回到初始状态，
+	 * 这样得到的缓冲区锁定状态、中断和扩容位置都与从begin处分析相同
+	 */
+	int nextBegin(String text, int begin) {
+		if (text.length() - begin < buffSize) {
+			//缓冲区不满载，一次分析完剩余的全部字符
+			return text.length();
+		}
+		int from = resetPoint(text, begin);
+		try {
+			return from + scan(load(text, from, begin), from - begin);
+		} catch (IOException ex) {
+			throw new RuntimeException(ex);
+		} finally {
+			reset((Reader) null);
+		}
+	}
 
-				// 读取词元池中的词元
-				return buildLexeme(context.firstLexeme());
+	/**
+	 * 在临界区之前查找最后一个重置字符，返回其后一个位置；没有找到返回begin
+	 * 书名子分词器在《之后最多占用BOOK_TITLE_LIMIT个字符，重置字符及之前这个范围内不能有《
+	 */
+	private int resetPoint(String text, int begin) {
+		for (int i = begin + buffSize - buffExhaustCritical; i >= begin; i--) {
+			if (RESET_CHARS.indexOf(CharacterHelper.regularize(text.charAt(i))) >= 0) {
+				int j = i - 1;
+				int from = Math.max(begin, i - BOOK_TITLE_LIMIT);
+				while (j >= from && text.charAt(j) != '《') {
+					j--;
+				}
+				if (j < from) {
+					return i + 1;
+				}
 			}
-		} else {
-			//读取词元池中的已有词元
-			return buildLexeme(context.firstLexeme());
 		}
+		return begin;
+	}
+
+	/**
+	 * 以text为输入，从from处读入缓冲区，作为以begin处为起点的一次分析中from之后的部分
+	 *
+	 * @return 缓冲区中可处理的字符长度
+	 */
+	private int load(String text, int from, int begin) throws IOException {
+		input = new StringReader(text);
+		input.skip(from);
+		int read = input.read(segmentBuff, 0, buffSize - (from - begin));
+		context.resetContext();
+		context.setDictionary(Dictionary.getInstance());
+		context.setBuffOffset(from);
+		context.setAvailable(Math.max(read, 0));
+		return context.getAvailable();
 	}
 
 	/**
 	 * 根据context的上下文情况，填充segmentBuff
 	 *
-	 * @param reader
 	 * @return 返回待分析的（有效的）字串长度
 	 * @throws IOException
 	 */
-	private int fillBuffer(Reader reader) throws IOException {
+	private int fillBuffer() throws IOException {
 		int readCount = 0;
 		if (context.getBuffOffset() == 0) {
 			//首次读取reader
-			readCount = reader.read(segmentBuff);
+			readCount = read(0, buffSize);
 		} else {
 			int offset = context.getAvailable() - context.getLastAnalyzed();
 			if (offset > 0) {
 				//最近一次读取的>最近一次处理的，将未处理的字串拷贝到segmentBuff头部
 				System.arraycopy(segmentBuff, context.getLastAnalyzed(), this.segmentBuff, 0, offset);
+				if (utf8 != null) {
+					System.arraycopy(byteOffsets, context.getLastAnalyzed(), byteOffsets, 0, offset + 1);
+				}
 				readCount = offset;
 			}
 			//继续读取reader ，以onceReadIn - onceAnalyzed为起始位置，继续填充segmentBuff剩余的部分
-			readCount += reader.read(segmentBuff, offset, BUFF_SIZE - offset);
+			int read = read(offset, buffSize - offset);
+			if (read > 0) {
+				//读到末尾时返回-1，不能计入
+				readCount += read;
+			}
 		}
 		//记录最后一次从Reader中读入的可用字符长度
 		context.setAvailable(readCount);
 		return readCount;
 	}
 
+	/**
+	 * 从输入读取len个字符到segmentBuff的off处，按UTF-8字节分词时同时记录字节位置
+	 *
+	 * @return 读取的字符数，读到末尾返回-1
+	 */
+	private int read(int off, int len) throws IOException {
+		if (utf8 != null) {
+			return utf8.read(segmentBuff, byteOffsets, off, len);
+		}
+		return input.read(segmentBuff, off, len);
+	}
+
 	/**
 	 * 取出词元集合中的下一个词元
 	 *
@@ -180,12 +655,25 @@ public final class IKSegmentation {
 	 *
 	 * @param input
 	 */
-	public synchronized void reset(Reader input) {
+	public void reset(Reader input) {
 		this.input = input;
+		this.utf8 = null;
+		this.streamOffset = 0;
+		this.streamCursor = 0;
+		this.streamCut = 0;
 		context.resetContext();
 		for (ISegmenter segmenter : segmenters) {
 			segmenter.reset();
 		}
 	}
 
+	/**
+	 * 重置分词器到初始状态，从input的当前位置读到limit，不改变input的位置
+	 *
+	 * @param input
+	 */
+	public void reset(CharBuffer input) {
+		reset(new CharBufferReader(input));
+	}
+
 }
@@ -0,0 +1,90 @@
+package org.wltea.analyzer;
+
+import org.wltea.analyzer.help.CharBufferReader;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+
+/**
+ * IKSegmentation线程复用池
+ * 每个线程各持有一个细粒度切分和一个最大词长切分的IKSegmentation实例，取出时重置到新的输入。
+ * 取出和分词都不加锁，也不再新建缓冲区、上下文和子分词器
+ * <p/>
+ * 取出的实例只能在当前线程中使用，并且要在同一线程下一次取出之前使用完毕
+ */
+public final class IKSegmentationPool {
+
+	private static final ThreadLocal<IKSegmentation[]> SEGMENTATIONS = new ThreadLocal<IKSegmentation[]>() {
+		@Override
+		protected IKSegmentation[] initialValue() {
+			return new IKSegmentation[2];
+		}
+	};
+
+	private IKSegmentationPool() {
+	}
+
+	/**
+	 * 取出当前线程的细粒度切分实例
+	 *
+	 * @param input
+	 * @return IKSegmentation
+	 */
+	public static IKSegmentation get(Reader input) {
+		return get(input, false);
+	}
+
+	/**
+	 * 取出当前线程的实例
+	 *
+	 * @param input
+	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
+	 * @return IKSegmentation
+	 */
+	public static IKSegmentation get(Reader input, boolean isMaxWordLength) {
+		IKSegmentation[] segmentations = SEGMENTATIONS.get();
+		int index = isMaxWordLength ? 1 : 0;
+		IKSegmentation segmentation = segmentations[index];
+		if (segmentation == null) {
+			segmentation = new IKSegmentation(input, isMaxWordLength);
+			segmentations[index] = segmentation;
+		} else {
+			segmentation.reset(input);
+		}
+		return segmentation;
+	}
+
+	/**
+	 * 取出当前线程的实例，不设置输入
+	 * 用于IKSegmentation.segment(char[], int, int, TokenSink)
+	 *
+	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
+	 * @return IKSegmentation
+	 */
+	public static IKSegmentation get(boolean isMaxWordLength) {
+		return get((Reader) null, isMaxWordLength);
+	}
+
+	/**
+	 * 取出当前线程的实例，对短文本分词
+	 *
+	 * @param text
+	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
+	 * @return IKSegmentation
+	 */
+	public static IKSegmentation get(String text, boolean isMaxWordLength) {
+		return get(new StringReader(text), isMaxWordLength);
+	}
+
+	/**
+	 * 取出当前线程的实例，从text的当前位置读到limit，不改变text的位置
+	 *
+	 * @param text
+	 * @param isMaxWordLength 当为true时，分词器进行最大词长切分
+	 * @return IKSegmentation
+	 */
+	public static IKSegmentation get(CharBuffer text, boolean isMaxWordLength) {
+		return get(new CharBufferReader(text), isMaxWordLength);
+	}
+}
@@ -42,14 +42,11 @@ public final class Lexeme implements Comparable<Lexeme> {
 	private int length;
 	//词元文本
 	private String lexemeText;
+	//词元文本尚未生成时，词元所在的分词缓冲区
+	private char[] buffer;
 	//词元类型
 	private Type type;
 
-	//当前词元的前一个词元
-	private Lexeme prev;
-	//当前词元的后一个词元
-	private Lexeme next;
-
 	public Lexeme(int offset, int begin, int length, Type type) {
 		this.offset = offset;
 		this.begin = begin;
@@ -198,12 +195,18 @@ public final class Lexeme implements Comparable<Lexeme> {
 	 */
 	public String getLexemeText() {
 		if (lexemeText == null) {
-			return "";
+			if (buffer == null) {
+				return "";
+			}
+			//首次读取时从分词缓冲区生成
+			lexemeText = String.valueOf(buffer, begin, length);
+			buffer = null;
 		}
 		return lexemeText;
 	}
 
 	public void setLexemeText(String lexemeText) {
+		this.buffer = null;
 		if (lexemeText == null) {
 			this.lexemeText = "";
 			this.length = 0;
@@ -213,6 +216,43 @@ public final class Lexeme implements Comparable<Lexeme> {
 		}
 	}
 
+	/**
+	 * 获取词元的文本内容，不生成String
+	 * 由IKSegmentation.nextView()取得的词元，返回分词缓冲区上的视图，只在下一次取词元之前有效
+	 *
+	 * @return CharSequence
+	 */
+	public CharSequence getText() {
+		if (lexemeText == null && buffer != null) {
+			return new TextView(buffer, begin, length);
+		}
+		return getLexemeText();
+	}
+
+	/**
+	 * 将词元的文本内容复制到dest的destBegin处，不生成String
+	 * 由IKSegmentation.nextView()取得的词元，只在下一次取词元之前可以复制
+	 *
+	 * @return 复制的字符数
+	 */
+	public int copyText(char[] dest, int destBegin) {
+		if (lexemeText == null && buffer != null) {
+			System.arraycopy(buffer, begin, dest, destBegin, length);
+			return length;
+		}
+		String text = getLexemeText();
+		text.getChars(0, text.length(), dest, destBegin);
+		return text.length();
+	}
+
+	/**
+	 * 设置词元所在的分词缓冲区，词元文本在需要时才生成
+	 */
+	void setBuffer(char[] buffer) {
+		this.lexemeText = null;
+		this.buffer = buffer;
+	}
+
 	public Type getType() {
 		return type;
 	}
@@ -224,7 +264,7 @@ public final class Lexeme implements Comparable<Lexeme> {
 	public String toString() {
 		StringBuilder strbuf = new StringBuilder();
 		strbuf.append(this.getBeginPosition()).append("-").append(this.getEndPosition());
-		strbuf.append(" : ").append(this.lexemeText).append(" : \t");
+		strbuf.append(" : ").append(this.getText()).append(" : \t");
 		switch (type) {
 			case TYPE_CJK_NORMAL:
 				strbuf.append("CJK_NORMAL");
@@ -265,19 +305,47 @@ public final class Lexeme implements Comparable<Lexeme> {
 		return strbuf.toString();
 	}
 
-	Lexeme getPrev() {
-		return prev;
-	}
+	/**
+	 * 字符数组上的只读文本视图
+	 */
+	private static final class TextView implements CharSequence {
 
-	void setPrev(Lexeme prev) {
-		this.prev = prev;
-	}
+		private final char[] chars;
 
-	Lexeme getNext() {
-		return next;
-	}
+		private final int begin;
 
-	void setNext(Lexeme next) {
-		this.next = next;
+		private final int length;
+
+		TextView(char[] chars, int begin, int length) {
+			this.chars = chars;
+			this.begin = begin;
+			this.length = length;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= length) {
+				throw new IndexOutOfBoundsException("index:" + index + ",length:" + length);
+			}
+			return chars[begin + index];
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			if (start < 0 || end > length || start > end) {
+				throw new IndexOutOfBoundsException("start:" + start + ",end:" + end + ",length:" + length);
+			}
+			return new TextView(chars, begin + start, end - start);
+		}
+
+		@Override
+		public String toString() {
+			return String.valueOf(chars, begin, length);
+		}
 	}
 }
@@ -0,0 +1,19 @@
+package org.wltea.analyzer;
+
+/**
+ * 词元接收器
+ * IKSegmentation.segment(char[], int, int, TokenSink)按顺序推送每个最终词元，不向调用方交出Lexeme对象
+ */
+public interface TokenSink {
+
+	/**
+	 * 接收一个词元
+	 *
+	 * @param buffer   分词缓冲区，词元文本为规格化（全角转半角，大写转小写）后的字符，只在本次调用内有效
+	 * @param begin    词元在buffer中的起始位置
+	 * @param length   词元的字符长度
+	 * @param position 词元在输入字符数组中的起始位置
+	 * @param type     词元类型
+	 */
+	void token(char[] buffer, int begin, int length, int position, Lexeme.Type type);
+}
@@ -0,0 +1,124 @@
+package org.wltea.analyzer;
+
+/**
+ * UTF-8字节数组的增量解码器
+ * 按需解码到分词缓冲区，同时记录每个字符在字节数组中的位置，不生成整个输入的String或char[]。
+ * 非法或不完整的字节序列逐字节替换为U+FFFD；
+ * 四字节序列解码为代理对，两个字符都记为该序列的起始位置
+ */
+final class Utf8Decoder {
+
+	private static final char REPLACEMENT = '\uFFFD';
+
+	private final byte[] bytes;
+
+	//下一个待解码的字节位置
+	private int position;
+
+	private final int end;
+
+	//上一次解码时缓冲区已满、尚未放入的低位代理，没有时为0
+	private char pendingLow;
+
+	//pendingLow所在字节序列的起始位置
+	private int pendingOffset;
+
+	Utf8Decoder(byte[] bytes, int off, int len) {
+		if (off < 0 || len < 0 || off + len > bytes.length) {
+			throw new IndexOutOfBoundsException("off:" + off + ",len:" + len + ",length:" + bytes.length);
+		}
+		this.bytes = bytes;
+		this.position = off;
+		this.end = off + len;
+	}
+
+	/**
+	 * 解码到chars[off, off + len)，每个字符的字节位置记录到offsets的相同下标处，
+	 * offsets[off + 返回值]记录下一个字符的字节位置。只有字节全部解码完才会少于len个字符
+	 *
+	 * @return 解码的字符数，没有更多的字节返回-1
+	 */
+	int read(char[] chars, int[] offsets, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		int index = off;
+		int limit = off + len;
+		if (pendingLow != 0) {
+			chars[index] = pendingLow;
+			offsets[index++] = pendingOffset;
+			pendingLow = 0;
+		}
+		while (index < limit && position < end) {
+			byte b = bytes[position];
+			if (b >= 0) {
+				//ASCII
+				chars[index] = (char) b;
+				offsets[index++] = position++;
+				continue;
+			}
+			int begin = position;
+			int c = decode();
+			if (c < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+				chars[index] = (char) c;
+				offsets[index++] = begin;
+			} else {
+				chars[index] = Character.highSurrogate(c);
+				offsets[index++] = begin;
+				if (index < limit) {
+					chars[index] = Character.lowSurrogate(c);
+					offsets[index++] = begin;
+				} else {
+					pendingLow = Character.lowSurrogate(c);
+					pendingOffset = begin;
+				}
+			}
+		}
+		if (index == off) {
+			return -1;
+		}
+		offsets[index] = pendingLow != 0 ? pendingOffset : position;
+		return index - off;
+	}
+
+	/**
+	 * 解码position处的多字节序列，position移到序列之后
+	 *
+	 * @return 码位，非法的字节返回U+FFFD并只跳过一个字节
+	 */
+	private int decode() {
+		int b = bytes[position] & 0xff;
+		if (b >= 0xc2 && b <= 0xdf) {
+			if (position + 1 < end && isContinuation(position + 1)) {
+				int c = (b & 0x1f) << 6 | bytes[position + 1] & 0x3f;
+				position += 2;
+				return c;
+			}
+		} else if (b >= 0xe0 && b <= 0xef) {
+			if (position + 2 < end && isContinuation(position + 1) && isContinuation(position + 2)) {
+				int c = (b & 0x0f) << 12 | (bytes[position + 1] & 0x3f) << 6 | bytes[position + 2] & 0x3f;
+				//排除超长编码和代理区
+				if (c >= 0x800 && (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE)) {
+					position += 3;
+					return c;
+				}
+			}
+		} else if (b >= 0xf0 && b <= 0xf4) {
+			if (position + 3 < end && isContinuation(position + 1) && isContinuation(position + 2)
+					&& isContinuation(position + 3)) {
+				int c = (b & 0x07) << 18 | (bytes[position + 1] & 0x3f) << 12
+						| (bytes[position + 2] & 0x3f) << 6 | bytes[position + 3] & 0x3f;
+				if (c >= Character.MIN_SUPPLEMENTARY_CODE_POINT && c <= Character.MAX_CODE_POINT) {
+					position += 4;
+					return c;
+				}
+			}
+		}
+		position++;
+		return REPLACEMENT;
+	}
+
+	private boolean isContinuation(int index) {
+		return (bytes[index] & 0xc0) == 0x80;
+	}
+}
@@ -0,0 +1,20 @@
+package org.wltea.analyzer;
+
+/**
+ * UTF-8输入的词元接收器
+ * IKSegmentation.segment(byte[], int, int, Utf8TokenSink)按顺序推送每个最终词元，词元位置为字节位置
+ */
+public interface Utf8TokenSink {
+
+	/**
+	 * 接收一个词元
+	 *
+	 * @param buffer     分词缓冲区，词元文本为规格化（全角转半角，大写转小写）后的字符，只在本次调用内有效
+	 * @param begin      词元在buffer中的起始位置
+	 * @param length     词元的字符长度
+	 * @param byteBegin  词元在输入字节数组中的起始位置
+	 * @param byteLength 词元的UTF-8字节长度，输入字节数组中的[byteBegin, byteBegin + byteLength)即词元的原文
+	 * @param type       词元类型
+	 */
+	void token(char[] buffer, int begin, int length, int byteBegin, int byteLength, Lexeme.Type type);
+}
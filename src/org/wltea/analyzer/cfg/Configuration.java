@@ -7,6 +7,7 @@ import org.wltea.analyzer.seg.ISegmenter;
 import org.wltea.analyzer.seg.LetterSegmenter;
 import org.wltea.analyzer.seg.QuantifierSegmenter;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,9 +19,103 @@ import java.util.List;
  */
 public class Configuration {
 
+	/**
+	 * 主词典引擎：DictSegment词典树
+	 */
+	public static final String DICT_ENGINE_SEGMENT = "segment";
+	/**
+	 * 主词典引擎：双数组Trie
+	 */
+	public static final String DICT_ENGINE_DATRIE = "datrie";
+	/**
+	 * 主词典引擎：最小化有向无环词图
+	 */
+	public static final String DICT_ENGINE_DAWG = "dawg";
+	/**
+	 * 中文词匹配：逐个前缀匹配（Hit对列）
+	 */
+	public static final String CJK_ENGINE_HIT = "hit";
+	/**
+	 * 中文词匹配：Aho-Corasick自动机
+	 */
+	public static final String CJK_ENGINE_AC = "ac";
+
 	private Configuration() {
 	}
 
+	/**
+	 * 获取主词典使用的存储引擎
+	 * 通过系统属性 ik.dict.engine 指定，默认使用DictSegment词典树
+	 *
+	 * @return String
+	 */
+	public static String getMainDictEngine() {
+		return System.getProperty("ik.dict.engine", DICT_ENGINE_SEGMENT);
+	}
+
+	/**
+	 * 获取词典快照文件
+	 * 通过系统属性 ik.dict.snapshot 指定，设置后全部词典从快照映射加载，
+	 * 快照不存在或过期时自动从文本词典重新编译
+	 *
+	 * @return 未设置时返回null
+	 */
+	public static File getDictSnapshot() {
+		String path = System.getProperty("ik.dict.snapshot");
+		return path == null || path.trim().length() == 0 ? null : new File(path.trim());
+	}
+
+	/**
+	 * 是否并行加载词典
+	 * 通过系统属性 ik.dict.parallel=true 开启，全部词典同时读取构建，主词典按首字分区并行构建
+	 *
+	 * @return boolean
+	 */
+	public static boolean isParallelDictLoad() {
+		return Boolean.getBoolean("ik.dict.parallel");
+	}
+
+	/**
+	 * 获取中文词的匹配方式
+	 * 通过系统属性 ik.cjk.engine 指定，默认逐个前缀匹配
+	 *
+	 * @return String
+	 */
+	public static String getCJKEngine() {
+		return System.getProperty("ik.cjk.engine", CJK_ENGINE_HIT);
+	}
+
+	/**
+	 * 获取分词缓冲区的初始大小
+	 * 通过系统属性 ik.buff.size 指定，默认3072个字符
+	 *
+	 * @return int
+	 */
+	public static int getBuffSize() {
+		return Integer.getInteger("ik.buff.size", 3072);
+	}
+
+	/**
+	 * 获取缓冲区耗尽的临界值
+	 * 通过系统属性 ik.buff.critical 指定，默认48个字符
+	 *
+	 * @return int
+	 */
+	public static int getBuffExhaustCritical() {
+		return Integer.getInteger("ik.buff.critical", 48);
+	}
+
+	/**
+	 * 获取分词缓冲区的最大大小
+	 * 通过系统属性 ik.buff.max 指定，不小于初始大小；默认等于初始大小，缓冲区不扩容，切分结果与固定大小的缓冲区相同
+	 *
+	 * @return int
+	 */
+	public static int getMaxBuffSize() {
+		int buffSize = getBuffSize();
+		return Math.max(buffSize, Integer.getInteger("ik.buff.max", buffSize));
+	}
+
 	/**
 	 * 初始化子分词器实现
 	 * （目前暂时不考虑配置扩展）
@@ -34,7 +129,7 @@ public class Configuration {
 		//处理数量词的子分词器
 		segmenters.add(new QuantifierSegmenter());
 		//处理中文词的子分词器
-		segmenters.add(new CJKSegmenter());
+		segmenters.add(new CJKSegmenter(CJK_ENGINE_AC.equals(getCJKEngine())));
 		//处理字母的子分词器
 		segmenters.add(new LetterSegmenter());
 		//书名分词器
@@ -0,0 +1,189 @@
+package org.wltea.analyzer.dic;
+
+/**
+ * 主词典的Aho-Corasick自动机
+ * 在双数组Trie上附加失败链接：状态即Trie节点，表示已读入文本中能与词典前缀匹配的最长后缀。
+ * 从左到右每读入一个字符只做一次状态转移（沿失败链接回退的总次数不超过读入的字符数），
+ * 不论当前有多少个未完成的前缀，都能得到以当前字符结尾的全部词
+ * <p/>
+ * 字符集为65536个char，不预先展开完整的状态转移表
+ */
+public class AhoCorasickAutomaton {
+
+	/**
+	 * 初始状态
+	 */
+	public static final int ROOT = 0;
+
+	/**
+	 * 没有输出
+	 */
+	public static final int NONE = -1;
+
+	private final DoubleArrayTrie trie;
+
+	//失败链接：当前状态的最长真后缀状态
+	private final int[] fail;
+
+	//输出链接：失败链上最近的成词状态，没有为NONE
+	private final int[] output;
+
+	//状态对应的词段长度
+	private final char[] depth;
+
+	//失败链上（含自身，不含根节点）有子节点的状态个数，即仍可能向后匹配成词的前缀个数
+	private final char[] pending;
+
+	private AhoCorasickAutomaton(DoubleArrayTrie trie) {
+		this.trie = trie;
+		int length = trie.getArrayLength();
+		this.fail = new int[length];
+		this.output = new int[length];
+		this.depth = new char[length];
+		this.pending = new char[length];
+	}
+
+	/**
+	 * 根据词典构建自动机
+	 * 双数组Trie直接在原数组上构建，其他词典先转换为双数组Trie
+	 *
+	 * @param dict 词典
+	 * @return AhoCorasickAutomaton
+	 */
+	static AhoCorasickAutomaton build(IDictTrie dict) {
+		DoubleArrayTrie trie;
+		if (dict instanceof DoubleArrayTrie) {
+			trie = (DoubleArrayTrie) dict;
+		} else if (dict instanceof DictSegment) {
+			trie = DoubleArrayTrie.build(((DictSegment) dict).getWords());
+		} else if (dict instanceof Dawg) {
+			trie = DoubleArrayTrie.build(((Dawg) dict).getWords());
+		} else {
+			throw new IllegalArgumentException("unsupported dictionary:" + dict.getClass().getName());
+		}
+		AhoCorasickAutomaton automaton = new AhoCorasickAutomaton(trie);
+		automaton.link();
+		return automaton;
+	}
+
+	/**
+	 * 按层次遍历Trie，计算失败链接、输出链接
+	 */
+	private void link() {
+		int length = trie.getArrayLength();
+		//按父节点归集子节点
+		int[] childStart = new int[length + 1];
+		int nodes = 0;
+		for (int node = 0; node < length; node++) {
+			int parent = trie.parent(node);
+			if (parent >= 0) {
+				childStart[parent + 1]++;
+				nodes++;
+			}
+		}
+		for (int i = 0; i < length; i++) {
+			childStart[i + 1] += childStart[i];
+		}
+		int[] children = new int[nodes];
+		int[] filled = new int[length];
+		for (int node = 0; node < length; node++) {
+			int parent = trie.parent(node);
+			if (parent >= 0) {
+				children[childStart[parent] + filled[parent]++] = node;
+			}
+		}
+
+		output[ROOT] = NONE;
+		int[] queue = new int[nodes + 1];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = ROOT;
+		while (head < tail) {
+			int parent = queue[head++];
+			for (int i = childStart[parent]; i < childStart[parent + 1]; i++) {
+				int node = children[i];
+				depth[node] = (char) (depth[parent] + 1);
+				if (parent == ROOT) {
+					fail[node] = ROOT;
+				} else {
+					fail[node] = next(fail[parent], trie.nodeChar(node));
+				}
+				int f = fail[node];
+				output[node] = trie.isWord(f) && f != ROOT ? f : output[f];
+				pending[node] = (char) (pending[f] + (trie.hasChildren(node) ? 1 : 0));
+				queue[tail++] = node;
+			}
+		}
+	}
+
+	/**
+	 * 估算占用的堆内存，包括由DictSegment词典转换而来的双数组Trie
+	 *
+	 * @param shared 双数组Trie与主词典共用时为true，不重复计算
+	 */
+	public long memoryUsage(boolean shared) {
+		long size = MemoryUsage.ofObject(5 * MemoryUsage.REFERENCE)
+				+ MemoryUsage.ofIntArray(fail.length)
+				+ MemoryUsage.ofIntArray(output.length)
+				+ MemoryUsage.ofCharArray(depth.length)
+				+ MemoryUsage.ofCharArray(pending.length);
+		return shared ? size : size + trie.memoryUsage();
+	}
+
+	/**
+	 * 状态转移
+	 *
+	 * @param state 当前状态
+	 * @param c     读入的字符
+	 * @return 新状态
+	 */
+	public int next(int state, char c) {
+		int next;
+		while ((next = trie.child(state, c)) < 0) {
+			if (state == ROOT) {
+				return ROOT;
+			}
+			state = fail[state];
+		}
+		return next;
+	}
+
+	/**
+	 * 获取state对应的最长的词
+	 *
+	 * @return 以当前字符结尾的最长的词所在状态，没有为NONE
+	 */
+	public int firstOutput(int state) {
+		return state != ROOT && trie.isWord(state) ? state : output[state];
+	}
+
+	/**
+	 * 获取比out更短的下一个词
+	 *
+	 * @return 没有为NONE
+	 */
+	public int nextOutput(int out) {
+		return output[out];
+	}
+
+	/**
+	 * 获取状态对应的词段长度
+	 */
+	public int depth(int state) {
+		return depth[state];
+	}
+
+	/**
+	 * 获取仍可能向后匹配成词的前缀个数
+	 */
+	public int pendingCount(int state) {
+		return pending[state];
+	}
+
+	/**
+	 * c是否为某个词的首字
+	 */
+	public boolean startsWith(char c) {
+		return trie.child(ROOT, c) >= 0;
+	}
+}
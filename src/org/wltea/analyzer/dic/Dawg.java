@@ -0,0 +1,383 @@
+package org.wltea.analyzer.dic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 最小化有向无环词图（DAWG）词典
+ * 词典树中后缀相同的子树合并为同一个状态，整个词典存放在三个基本类型数组中，不可修改
+ * <p/>
+ * 状态s的转移为labels/targets中下标[states[s] >>> 1, states[s + 1] >>> 1)的部分，按字符升序排列；
+ * states[s]的最低位表示到达状态s的路径是否构成一个词
+ * 根状态固定为0
+ */
+public class Dawg implements IDictTrie {
+
+	//根状态
+	private static final int ROOT = 0;
+
+	//词尾标识位
+	private static final int WORD_END = 1;
+
+	//每个状态的首个转移下标和词尾标识，末尾多一个哨兵
+	private final int[] states;
+
+	//转移字符
+	private final char[] labels;
+
+	//转移的目标状态
+	private final int[] targets;
+
+	//词条数目
+	private final int size;
+
+	private Dawg(int[] states, char[] labels, int[] targets, int size) {
+		this.states = states;
+		this.labels = labels;
+		this.targets = targets;
+		this.size = size;
+	}
+
+	/**
+	 * 根据词条构建最小化词图
+	 * 词条排序后逐个加入，每加入一个词，上一个词不再变化的后缀状态即与已登记的等价状态合并
+	 *
+	 * @param words 词条集合，允许重复
+	 * @return Dawg
+	 */
+	public static Dawg build(Collection<String> words) {
+		String[] keys = words.toArray(new String[words.size()]);
+		Arrays.sort(keys);
+
+		Map<State, State> register = new HashMap<>();
+		State root = new State();
+		List<State> path = new ArrayList<>();
+		path.add(root);
+		String previous = "";
+		int count = 0;
+		for (String key : keys) {
+			if (key.length() == 0 || key.equals(previous)) {
+				continue;
+			}
+			int common = 0;
+			int max = Math.min(previous.length(), key.length());
+			while (common < max && previous.charAt(common) == key.charAt(common)) {
+				common++;
+			}
+			//上一个词在公共前缀之后的状态不会再增加转移，合并等价状态
+			minimize(path, common, register);
+			for (int i = common; i < key.length(); i++) {
+				State state = new State();
+				path.get(i).add(key.charAt(i), state);
+				path.add(state);
+			}
+			path.get(key.length()).wordEnd = true;
+			previous = key;
+			count++;
+		}
+		minimize(path, 0, register);
+		return flatten(root, register.size() + 1, count);
+	}
+
+	/**
+	 * 将path中深度大于depth的状态由深到浅与已登记的等价状态合并
+	 */
+	private static void minimize(List<State> path, int depth, Map<State, State> register) {
+		for (int i = path.size() - 1; i > depth; i--) {
+			State state = path.remove(i);
+			State existing = register.get(state);
+			if (existing != null) {
+				path.get(i - 1).replaceLast(existing);
+			} else {
+				state.id = register.size() + 1;
+				register.put(state, state);
+			}
+		}
+	}
+
+	/**
+	 * 将构建时的状态图展开为数组
+	 */
+	private static Dawg flatten(State root, int stateCount, int size) {
+		//按广度优先重新编号，根状态为0
+		State[] order = new State[stateCount];
+		int[] number = new int[stateCount + 1];
+		Arrays.fill(number, -1);
+		order[0] = root;
+		number[root.id] = 0;
+		int numbered = 1;
+		int transitions = 0;
+		for (int i = 0; i < numbered; i++) {
+			State state = order[i];
+			transitions += state.count;
+			for (int t = 0; t < state.count; t++) {
+				State target = state.targets[t];
+				if (number[target.id] < 0) {
+					number[target.id] = numbered;
+					order[numbered++] = target;
+				}
+			}
+		}
+
+		int[] states = new int[numbered + 1];
+		char[] labels = new char[transitions];
+		int[] targets = new int[transitions];
+		int position = 0;
+		for (int i = 0; i < numbered; i++) {
+			State state = order[i];
+			states[i] = (position << 1) | (state.wordEnd ? WORD_END : 0);
+			for (int t = 0; t < state.count; t++) {
+				labels[position] = state.labels[t];
+				targets[position] = number[state.targets[t].id];
+				position++;
+			}
+		}
+		states[numbered] = position << 1;
+		return new Dawg(states, labels, targets, size);
+	}
+
+	/**
+	 * 获取词条数目
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 获取状态数目
+	 */
+	public int getStateCount() {
+		return states.length - 1;
+	}
+
+	/**
+	 * 获取转移数目
+	 */
+	public int getTransitionCount() {
+		return labels.length;
+	}
+
+	/**
+	 * 查找state状态下字符c对应的转移目标
+	 *
+	 * @return 没有找到返回-1
+	 */
+	private int child(int state, char c) {
+		int low = states[state] >>> 1;
+		int high = (states[state + 1] >>> 1) - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			char midVal = labels[mid];
+			if (midVal < c) {
+				low = mid + 1;
+			} else if (midVal > c) {
+				high = mid - 1;
+			} else {
+				return targets[mid];
+			}
+		}
+		return -1;
+	}
+
+	private boolean isWord(int state) {
+		return (states[state] & WORD_END) != 0;
+	}
+
+	private boolean hasChildren(int state) {
+		return (states[state + 1] >>> 1) > (states[state] >>> 1);
+	}
+
+	/**
+	 * 按字典序导出全部词条
+	 */
+	List<String> getWords() {
+		List<String> words = new ArrayList<>(size);
+		collectWords(ROOT, new StringBuilder(), words);
+		return words;
+	}
+
+	private void collectWords(int state, StringBuilder prefix, List<String> words) {
+		for (int t = states[state] >>> 1; t < states[state + 1] >>> 1; t++) {
+			prefix.append(labels[t]);
+			if (isWord(targets[t])) {
+				words.add(prefix.toString());
+			}
+			collectWords(targets[t], prefix, words);
+			prefix.setLength(prefix.length() - 1);
+		}
+	}
+
+	/**
+	 * 匹配词段
+	 */
+	public Hit match(char[] charArray, int begin, int length) {
+		return this.match(charArray, begin, length, null);
+	}
+
+	/**
+	 * 从根状态开始匹配词段，结果写入result
+	 */
+	public Hit matchInto(char[] charArray, int begin, int length, Hit result) {
+		result.reset(begin);
+		return this.match(charArray, begin, length, result);
+	}
+
+	/**
+	 * 匹配词段
+	 * 与DictSegment保持一致：Hit的end记录最后一个参与匹配的字符位置
+	 */
+	public Hit match(char[] charArray, int begin, int length, Hit searchHit) {
+		int state;
+		if (searchHit == null) {
+			// 如果hit为空，新建，并从根状态开始匹配
+			searchHit = new Hit();
+			searchHit.setBegin(begin);
+			state = ROOT;
+		} else {
+			// 否则要将HIT状态重置，从hit记录的状态继续匹配
+			searchHit.setUnMatch();
+			state = searchHit.getMatchedNode();
+		}
+		searchHit.setEnd(begin);
+		if (length < 1) {
+			return searchHit;
+		}
+
+		int end = begin + length;
+		for (int i = begin; i < end; i++) {
+			searchHit.setEnd(i);
+			state = child(state, charArray[i]);
+			if (state < 0) {
+				//没有找到对应的转移
+				return searchHit;
+			}
+		}
+
+		if (isWord(state)) {
+			//添加HIT状态为完全匹配
+			searchHit.setMatch();
+		}
+		if (hasChildren(state)) {
+			//添加HIT状态为前缀匹配
+			searchHit.setPrefix();
+			//记录当前位置的状态
+			searchHit.setMatchedTrie(this);
+			searchHit.setMatchedNode(state);
+		}
+		return searchHit;
+	}
+
+	/**
+	 * 找出以begin开始的全部词
+	 */
+	public int matchAll(char[] charArray, int begin, int length, int[] ends) {
+		int count = 0;
+		int state = ROOT;
+		int end = begin + length;
+		for (int i = begin; i < end && count < ends.length; i++) {
+			state = child(state, charArray[i]);
+			if (state < 0) {
+				break;
+			}
+			if (isWord(state)) {
+				ends[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 找出以begin开始的最长的词
+	 */
+	public int matchLongest(char[] charArray, int begin, int length) {
+		int longest = -1;
+		int state = ROOT;
+		int end = begin + length;
+		for (int i = begin; i < end; i++) {
+			state = child(state, charArray[i]);
+			if (state < 0) {
+				break;
+			}
+			if (isWord(state)) {
+				longest = i;
+			}
+		}
+		return longest;
+	}
+
+	/**
+	 * 估算占用的堆内存
+	 */
+	public long memoryUsage() {
+		return MemoryUsage.ofObject(3 * MemoryUsage.REFERENCE + 4)
+				+ MemoryUsage.ofIntArray(states.length)
+				+ MemoryUsage.ofCharArray(labels.length)
+				+ MemoryUsage.ofIntArray(targets.length);
+	}
+
+	/**
+	 * 构建时的状态
+	 * 登记后的状态不再修改，以词尾标识和全部转移（目标状态按登记编号）判断等价
+	 */
+	private static class State {
+
+		private char[] labels = new char[2];
+
+		private State[] targets = new State[2];
+
+		private int count;
+
+		private boolean wordEnd;
+
+		//登记编号，未登记为0
+		private int id;
+
+		void add(char c, State target) {
+			if (count == labels.length) {
+				labels = Arrays.copyOf(labels, count * 2);
+				targets = Arrays.copyOf(targets, count * 2);
+			}
+			labels[count] = c;
+			targets[count] = target;
+			count++;
+		}
+
+		void replaceLast(State target) {
+			targets[count - 1] = target;
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = wordEnd ? 1 : 0;
+			for (int i = 0; i < count; i++) {
+				hash = 31 * hash + labels[i];
+				hash = 31 * hash + targets[i].id;
+			}
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof State)) {
+				return false;
+			}
+			State other = (State) o;
+			if (wordEnd != other.wordEnd || count != other.count) {
+				return false;
+			}
+			for (int i = 0; i < count; i++) {
+				if (labels[i] != other.labels[i] || targets[i] != other.targets[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package org.wltea.analyzer.dic;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 词典文件读取
+ * 不依赖Dictionary的初始化，可以在Dictionary类初始化期间由其他线程调用
+ */
+class DictReader {
+
+	/*
+	 * 全部词典，词典快照及并行加载均按此顺序存放
+	 */
+	static final String[] PATH_DIC_ALL = {Dictionary.PATH_DIC_MAIN, Dictionary.PATH_DIC_SURNAME,
+			Dictionary.PATH_DIC_QUANTIFIER, Dictionary.PATH_DIC_SUFFIX, Dictionary.PATH_DIC_PREP,
+			Dictionary.PATH_DIC_STOP};
+
+	private DictReader() {
+	}
+
+	/**
+	 * 读取词典文件中的全部词条
+	 */
+	static List<String> readWords(String path) throws IOException {
+		List<String> words = new ArrayList<>();
+		//读取词典文件
+		InputStream is = new BufferedInputStream(new FileInputStream(dictFile(path)));
+		BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"), 512);
+		String theWord;
+		do {
+			theWord = br.readLine();
+			if (theWord != null && !"".equals(theWord.trim())) {
+				words.add(theWord.trim());
+			}
+		} while (theWord != null);
+		is.close();
+		return words;
+	}
+
+	/**
+	 * 获取词典文件
+	 */
+	static File dictFile(String path) {
+		return new File("dict" + File.separator + path);
+	}
+}
@@ -3,52 +3,39 @@
  */
 package org.wltea.analyzer.dic;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 
 /**
  * IK Analyzer v3.2
  * 字典子片断 字典匹配核心类
- * 该类采用 数组 结合 HashMap，实现词典存储，词语匹配
+ * 该类采用 有序char数组 结合 子节点数组，实现词典存储，词语匹配
  * <p/>
- * 当下属的页节点小等于3时，采用数组存储
- * 当下属的页节点大于3时，采用HashMap存储
+ * 子节点按字符升序存放在Children的两个平行数组中，匹配时对char数组做二分查找，整个查找过程不需要装箱
+ * <p/>
+ * Children是不可变对象，增删子节点时复制出新的Children，再通过volatile引用整体替换（写时复制），
+ * 因此匹配过程不加锁，也不会读到修改了一半的节点；写操作以被调用的节点为锁互斥
  *
  * @author 林良益
  */
-public class DictSegment {
-
-	//公用字典表，存储汉字
-	private static final Map<Character, Character> charMap = new HashMap<>(16, 0.95f);
-
-	//数组大小上限
-	private static final int ARRAY_LENGTH_LIMIT = 3;
+public class DictSegment implements IDictTrie {
 
 	//当前节点上存储的字符
-	private Character nodeChar;
-
-	//Map存储结构
-	private Map<Character, DictSegment> childrenMap;
+	private final char nodeChar;
 
-	//数组方式存储结构
-	private DictSegment[] childrenArray;
-
-	//当前节点存储的Segment数目
-	//storeSize <=ARRAY_LENGTH_LIMIT ，使用数组存储， storeSize >ARRAY_LENGTH_LIMIT ,则使用Map存储
-	private int storeSize = 0;
+	//子节点，整体替换发布
+	private volatile Children children = Children.EMPTY;
 
 	//当前DictSegment状态 ,默认 0 , 1表示从根节点到当前节点的路径表示一个词
-	private int nodeState = 0;
+	private volatile int nodeState = 0;
 
-	public DictSegment(Character nodeChar) {
-		if (nodeChar == null) {
-			throw new IllegalArgumentException("参数为空异常，字符不能为空");
-		}
+	public DictSegment(char nodeChar) {
 		this.nodeChar = nodeChar;
 	}
 
-	public Character getNodeChar() {
+	public char getNodeChar() {
 		return nodeChar;
 	}
 
@@ -56,7 +43,7 @@ public class DictSegment {
 	 * 判断是否有下一个节点
 	 */
 	public boolean hasNextNode() {
-		return this.storeSize > 0;
+		return this.children.chars.length > 0;
 	}
 
 	/**
@@ -76,6 +63,14 @@ public class DictSegment {
 		return this.match(charArray, begin, length, null);
 	}
 
+	/**
+	 * 从当前节点开始匹配词段，结果写入result
+	 */
+	public Hit matchInto(char[] charArray, int begin, int length, Hit result) {
+		result.reset(begin);
+		return this.match(charArray, begin, length, result);
+	}
+
 	/**
 	 * 匹配词段
 	 */
@@ -92,54 +87,78 @@ public class DictSegment {
 		}
 		// 设置hit的当前处理位置
 		searchHit.setEnd(begin);
-
-		Character keyChar = charArray[begin];
-		DictSegment ds = null;
-
-		// 引用实例变量为本地变量，避免查询时遇到更新的同步问题
-		DictSegment[] segmentArray = this.childrenArray;
-		Map<Character, DictSegment> segmentMap = this.childrenMap;
-
-		// STEP1 在节点中查找keyChar对应的DictSegment
-		if (segmentArray != null) {
-			// 在数组中查找
-			for (DictSegment seg : segmentArray) {
-				if (seg != null && seg.nodeChar.equals(keyChar)) {
-					// 找到匹配的段
-					ds = seg;
-				}
-			}
-		} else if (segmentMap != null) {
-			// 在map中查找
-			ds = segmentMap.get(keyChar);
+		if (length < 1) {
+			return searchHit;
 		}
 
-		//STEP2 找到DictSegment，判断词的匹配状态，是否继续递归，还是返回结果
-		if (ds != null) {
-			if (length > 1) {
-				//词未匹配完，继续往下搜索
-				return ds.match(charArray, begin + 1, length - 1, searchHit);
-			} else if (length == 1) {
-
-				//搜索最后一个char
-				if (ds.nodeState == 1) {
-					//添加HIT状态为完全匹配
-					searchHit.setMatch();
-				}
-				if (ds.hasNextNode()) {
-					//添加HIT状态为前缀匹配
-					searchHit.setPrefix();
-					//记录当前位置的DictSegment
-					searchHit.setMatchedDictSegment(ds);
-				}
+		DictSegment ds = this;
+		int last = begin + length - 1;
+		for (int i = begin; ; i++) {
+			// 设置hit的当前处理位置
+			searchHit.setEnd(i);
+			// STEP1 在节点中查找keyChar对应的DictSegment
+			ds = ds.findSegment(charArray[i]);
+			if (ds == null) {
+				//STEP2 没有找到DictSegment， 将HIT设置为不匹配
 				return searchHit;
 			}
+			if (i == last) {
+				break;
+			}
+		}
 
+		//STEP3 搜索到最后一个char，判断词的匹配状态
+		if (ds.nodeState == 1) {
+			//添加HIT状态为完全匹配
+			searchHit.setMatch();
+		}
+		if (ds.hasNextNode()) {
+			//添加HIT状态为前缀匹配
+			searchHit.setPrefix();
+			//记录当前位置的DictSegment
+			searchHit.setMatchedTrie(ds);
 		}
-		//STEP3 没有找到DictSegment， 将HIT设置为不匹配
 		return searchHit;
 	}
 
+	/**
+	 * 找出以begin开始的全部词
+	 */
+	public int matchAll(char[] charArray, int begin, int length, int[] ends) {
+		int count = 0;
+		DictSegment ds = this;
+		int end = begin + length;
+		for (int i = begin; i < end && count < ends.length; i++) {
+			ds = ds.findSegment(charArray[i]);
+			if (ds == null) {
+				break;
+			}
+			if (ds.nodeState == 1) {
+				ends[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 找出以begin开始的最长的词
+	 */
+	public int matchLongest(char[] charArray, int begin, int length) {
+		int longest = -1;
+		DictSegment ds = this;
+		int end = begin + length;
+		for (int i = begin; i < end; i++) {
+			ds = ds.findSegment(charArray[i]);
+			if (ds == null) {
+				break;
+			}
+			if (ds.nodeState == 1) {
+				longest = i;
+			}
+		}
+		return longest;
+	}
+
 	/**
 	 * 加载填充词典片段
 	 *
@@ -157,133 +176,246 @@ public class DictSegment {
 	 * @param length
 	 */
 	public synchronized void fillSegment(char[] charArray, int begin, int length) {
-		//获取字典表中的汉字对象
-		Character beginChar = charArray[begin];
-		Character keyChar = charMap.get(beginChar);
-		//字典中没有该字，则将其添加入字典
-		if (keyChar == null) {
-			charMap.put(beginChar, beginChar);
-			keyChar = beginChar;
-		}
+		this.fill(charArray, begin, length);
+	}
 
+	/**
+	 * 加载填充词典片段，不加锁
+	 * 调用方需保证没有其他线程同时写入该子树，用于并行构建词典
+	 *
+	 * @param charArray
+	 * @param begin
+	 * @param length
+	 */
+	void fill(char[] charArray, int begin, int length) {
 		//搜索当前节点的存储，查询对应keyChar的keyChar，如果没有则创建
-		DictSegment ds = lookforSegment(keyChar);
+		DictSegment ds = lookforSegment(charArray[begin]);
 		//处理keyChar对应的segment
 		if (length > 1) {
 			//词元还没有完全加入词典树
-			ds.fillSegment(charArray, begin + 1, length - 1);
+			ds.fill(charArray, begin + 1, length - 1);
 		} else if (length == 1) {
 			//已经是词元的最后一个char,设置当前节点状态为1，表明一个完整的词
 			ds.nodeState = 1;
 		}
-
 	}
 
 	/**
-	 * 查找本节点下对应的keyChar的segment
-	 * 如果没有找到，则创建新的segment
+	 * 删除词典片段
 	 *
-	 * @param keyChar
-	 * @return
+	 * @param charArray
+	 * @return 词典中存在该词并已删除时返回true
 	 */
-	private DictSegment lookforSegment(Character keyChar) {
-
-		DictSegment ds = null;
-
-		if (this.storeSize <= ARRAY_LENGTH_LIMIT) {
-			//获取数组容器，如果数组未创建则创建数组
-			DictSegment[] segmentArray = getChildrenArray();
-			//搜寻数组
-			for (DictSegment segment : segmentArray) {
-				if (segment != null && segment.nodeChar.equals(keyChar)) {
-					//在数组中找到与keyChar对应的segment
-					ds = segment;
-					break;
-				}
-			}
-			//遍历数组后没有找到对应的segment
-			if (ds == null) {
-				//构造新的segment
-				ds = new DictSegment(keyChar);
-				if (this.storeSize < ARRAY_LENGTH_LIMIT) {
-					//数组容量未满，使用数组存储
-					segmentArray[this.storeSize] = ds;
-					//segment数目+1
-					this.storeSize++;
-				} else {
-					//数组容量已满，切换Map存储
-					//获取Map容器，如果Map未创建,则创建Map
-					Map<Character, DictSegment> segmentMap = getChildrenMap();
-					//将数组中的segment迁移到Map中
-					migrate(segmentArray, segmentMap);
-					//存储新的segment
-					segmentMap.put(keyChar, ds);
-					//segment数目+1 ，  必须在释放数组前执行storeSize++ ， 确保极端情况下，不会取到空的数组
-					this.storeSize++;
-					//释放当前的数组引用
-					this.childrenArray = null;
-				}
+	public boolean removeSegment(char[] charArray) {
+		return this.removeSegment(charArray, 0, charArray.length);
+	}
 
-			}
+	/**
+	 * 删除词典片段
+	 * 删除后不再构成任何词前缀的节点会从词典树中摘除
+	 *
+	 * @param charArray
+	 * @param begin
+	 * @param length
+	 * @return 词典中存在该词并已删除时返回true
+	 */
+	public synchronized boolean removeSegment(char[] charArray, int begin, int length) {
+		if (length < 1) {
+			return false;
+		}
+		return this.remove(charArray, begin, length);
+	}
 
+	private boolean remove(char[] charArray, int begin, int length) {
+		DictSegment ds = this.findSegment(charArray[begin]);
+		if (ds == null) {
+			return false;
+		}
+		boolean removed;
+		if (length > 1) {
+			removed = ds.remove(charArray, begin + 1, length - 1);
 		} else {
-			//获取Map容器，如果Map未创建,则创建Map
-			Map<Character, DictSegment> segmentMap = getChildrenMap();
-			//搜索Map
-			ds = segmentMap.get(keyChar);
-			if (ds == null) {
-				//构造新的segment
-				ds = new DictSegment(keyChar);
-				segmentMap.put(keyChar, ds);
-				//当前节点存储segment数目+1
-				this.storeSize++;
-			}
+			removed = ds.nodeState == 1;
+			ds.nodeState = 0;
 		}
-
-		return ds;
+		if (removed && ds.nodeState == 0 && !ds.hasNextNode()) {
+			//子节点已经不构成任何词，摘除
+			this.children = this.children.remove(ds.nodeChar);
+		}
+		return removed;
 	}
 
+	/**
+	 * 将other的全部子节点追加到当前节点之后
+	 * 要求other的子节点字符都大于当前节点已有的子节点字符，用于合并并行构建的子树
+	 *
+	 * @param other
+	 */
+	void appendChildren(DictSegment other) {
+		Children current = this.children;
+		Children appended = other.children;
+		if (appended.chars.length == 0) {
+			return;
+		}
+		int size = current.chars.length;
+		if (size > 0 && current.chars[size - 1] >= appended.chars[0]) {
+			throw new IllegalArgumentException("子节点字符区间重叠");
+		}
+		char[] chars = Arrays.copyOf(current.chars, size + appended.chars.length);
+		DictSegment[] segments = Arrays.copyOf(current.segments, chars.length);
+		System.arraycopy(appended.chars, 0, chars, size, appended.chars.length);
+		System.arraycopy(appended.segments, 0, segments, size, appended.segments.length);
+		this.children = new Children(chars, segments);
+	}
 
 	/**
-	 * 获取数组容器
-	 * 线程同步方法
+	 * 估算以当前节点为根的子树占用的堆内存
+	 * 每个节点包括DictSegment对象、Children对象及其两个数组，没有子节点时共用空的Children
 	 */
-	private DictSegment[] getChildrenArray() {
-		if (this.childrenArray == null) {
-			synchronized (this) {
-				if (this.childrenArray == null) {
-					this.childrenArray = new DictSegment[ARRAY_LENGTH_LIMIT];
-				}
+	public long memoryUsage() {
+		//nodeChar + children + nodeState
+		long size = MemoryUsage.ofObject(2 + MemoryUsage.REFERENCE + 4);
+		Children current = this.children;
+		if (current != Children.EMPTY) {
+			size += MemoryUsage.ofObject(2 * MemoryUsage.REFERENCE)
+					+ MemoryUsage.ofCharArray(current.chars.length)
+					+ MemoryUsage.ofReferenceArray(current.segments.length);
+			for (DictSegment ds : current.segments) {
+				size += ds.memoryUsage();
 			}
 		}
-		return this.childrenArray;
+		return size;
 	}
 
 	/**
-	 * 获取Map容器
-	 * 线程同步方法
+	 * 按字典序导出当前节点下的全部词条
+	 *
+	 * @return List<String>
 	 */
-	private Map<Character, DictSegment> getChildrenMap() {
-		if (this.childrenMap == null) {
-			synchronized (this) {
-				if (this.childrenMap == null) {
-					this.childrenMap = new HashMap<>(ARRAY_LENGTH_LIMIT * 2, 0.8f);
-				}
+	List<String> getWords() {
+		List<String> words = new ArrayList<>();
+		this.collectWords(new StringBuilder(), words);
+		return words;
+	}
+
+	private void collectWords(StringBuilder prefix, List<String> words) {
+		Children current = this.children;
+		for (DictSegment ds : current.segments) {
+			prefix.append(ds.nodeChar);
+			if (ds.nodeState == 1) {
+				words.add(prefix.toString());
 			}
+			ds.collectWords(prefix, words);
+			prefix.setLength(prefix.length() - 1);
 		}
-		return this.childrenMap;
 	}
 
 	/**
-	 * 将数组中的segment迁移到Map中
+	 * 在子节点中二分查找keyChar对应的segment
 	 *
-	 * @param segmentArray
+	 * @param keyChar
+	 * @return 没有找到返回null
 	 */
-	private void migrate(DictSegment[] segmentArray, Map<Character, DictSegment> segmentMap) {
-		for (DictSegment segment : segmentArray) {
-			if (segment != null) {
-				segmentMap.put(segment.nodeChar, segment);
+	private DictSegment findSegment(char keyChar) {
+		// 引用实例变量为本地变量，整个查找过程使用同一个Children
+		Children current = this.children;
+		int index = binarySearch(current.chars, keyChar);
+		return index >= 0 ? current.segments[index] : null;
+	}
+
+	/**
+	 * 查找本节点下对应的keyChar的segment
+	 * 如果没有找到，则创建新的segment
+	 *
+	 * @param keyChar
+	 * @return
+	 */
+	private DictSegment lookforSegment(char keyChar) {
+		Children current = this.children;
+		int index = binarySearch(current.chars, keyChar);
+		if (index >= 0) {
+			return current.segments[index];
+		}
+		//构造新的segment，插入到有序位置后整体发布
+		DictSegment ds = new DictSegment(keyChar);
+		this.children = current.insert(-(index + 1), ds);
+		return ds;
+	}
+
+	/**
+	 * 在有序数组chars中二分查找key
+	 *
+	 * @return 找到时返回下标，否则返回 -(插入位置 + 1)
+	 */
+	private static int binarySearch(char[] chars, char key) {
+		int low = 0;
+		int high = chars.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			char midVal = chars[mid];
+			if (midVal < key) {
+				low = mid + 1;
+			} else if (midVal > key) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * 子节点集合，不可变
+	 * chars升序排列，与segments一一对应
+	 */
+	private static final class Children {
+
+		private static final Children EMPTY = new Children(new char[0], new DictSegment[0]);
+
+		private final char[] chars;
+
+		private final DictSegment[] segments;
+
+		private Children(char[] chars, DictSegment[] segments) {
+			this.chars = chars;
+			this.segments = segments;
+		}
+
+		/**
+		 * 返回在index位置插入segment后的新集合
+		 */
+		private Children insert(int index, DictSegment segment) {
+			int size = chars.length;
+			char[] newChars = new char[size + 1];
+			DictSegment[] newSegments = new DictSegment[size + 1];
+			System.arraycopy(chars, 0, newChars, 0, index);
+			System.arraycopy(segments, 0, newSegments, 0, index);
+			newChars[index] = segment.nodeChar;
+			newSegments[index] = segment;
+			System.arraycopy(chars, index, newChars, index + 1, size - index);
+			System.arraycopy(segments, index, newSegments, index + 1, size - index);
+			return new Children(newChars, newSegments);
+		}
+
+		/**
+		 * 返回删除keyChar后的新集合
+		 */
+		private Children remove(char keyChar) {
+			int index = binarySearch(chars, keyChar);
+			if (index < 0) {
+				return this;
+			}
+			if (chars.length == 1) {
+				return EMPTY;
 			}
+			int size = chars.length - 1;
+			char[] newChars = new char[size];
+			DictSegment[] newSegments = new DictSegment[size];
+			System.arraycopy(chars, 0, newChars, 0, index);
+			System.arraycopy(segments, 0, newSegments, 0, index);
+			System.arraycopy(chars, index + 1, newChars, index, size - index);
+			System.arraycopy(segments, index + 1, newSegments, index, size - index);
+			return new Children(newChars, newSegments);
 		}
 	}
 
@@ -0,0 +1,216 @@
+package org.wltea.analyzer.dic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 词典快照
+ * 将全部词典预编译为双数组Trie写入二进制文件，启动时通过FileChannel.map映射文件，
+ * 直接在映射区上进行词典匹配，不再解析文本词典
+ * <p/>
+ * 文件格式（小端字节序）：
+ * <pre>
+ * int  MAGIC
+ * int  VERSION
+ * int  词典数目n
+ * n * (long 源词典文件长度, long 源词典文件修改时间)
+ * n * (int 词条数目, int 双数组长度)
+ * n * (int[] base, int[] check)
+ * </pre>
+ * 源词典文件的长度或修改时间与快照记录不一致时，快照视为过期
+ * <p/>
+ * 离线编译：java org.wltea.analyzer.dic.DictSnapshot &lt;快照文件&gt;
+ */
+public class DictSnapshot {
+
+	//文件标识 "IKDS"
+	private static final int MAGIC = 0x53444B49;
+
+	//快照格式版本，格式变化时递增
+	private static final int VERSION = 1;
+
+	private DictSnapshot() {
+	}
+
+	/**
+	 * 离线编译词典快照
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("usage: DictSnapshot <snapshot file>");
+			System.exit(1);
+		}
+		long start = System.currentTimeMillis();
+		compile(new File(args[0]));
+		System.out.println("snapshot compiled: " + args[0] + ", " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	/**
+	 * 从文本词典编译快照文件
+	 *
+	 * @param snapshot 快照文件
+	 * @return 编译出的词典，顺序与DictReader.PATH_DIC_ALL一致
+	 */
+	public static DoubleArrayTrie[] compile(File snapshot) throws IOException {
+		DoubleArrayTrie[] tries = build();
+		write(snapshot, tries);
+		return tries;
+	}
+
+	/**
+	 * 加载快照，快照不存在或已过期时，从文本词典重新编译
+	 * 快照无法写入时（如只读目录），直接使用内存中编译的词典
+	 *
+	 * @param snapshot 快照文件
+	 * @return 词典，顺序与DictReader.PATH_DIC_ALL一致
+	 */
+	public static DoubleArrayTrie[] loadOrCompile(File snapshot) throws IOException {
+		DoubleArrayTrie[] tries = load(snapshot);
+		if (tries != null) {
+			return tries;
+		}
+		tries = build();
+		try {
+			write(snapshot, tries);
+		} catch (IOException e) {
+			return tries;
+		}
+		DoubleArrayTrie[] mapped = load(snapshot);
+		return mapped != null ? mapped : tries;
+	}
+
+	/**
+	 * 映射快照文件
+	 *
+	 * @param snapshot 快照文件
+	 * @return 快照不存在、版本不符或已过期时返回null
+	 */
+	public static DoubleArrayTrie[] load(File snapshot) throws IOException {
+		if (!snapshot.isFile()) {
+			return null;
+		}
+		MappedByteBuffer buffer;
+		try (RandomAccessFile file = new RandomAccessFile(snapshot, "r");
+			 FileChannel channel = file.getChannel()) {
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		String[] paths = DictReader.PATH_DIC_ALL;
+		if (buffer.remaining() < headerLength(paths.length)
+				|| buffer.getInt() != MAGIC
+				|| buffer.getInt() != VERSION
+				|| buffer.getInt() != paths.length) {
+			return null;
+		}
+		for (String path : paths) {
+			File source = DictReader.dictFile(path);
+			if (buffer.getLong() != source.length() || buffer.getLong() != source.lastModified()) {
+				//源词典已变化
+				return null;
+			}
+		}
+		int[] sizes = new int[paths.length];
+		int[] lengths = new int[paths.length];
+		long expected = headerLength(paths.length);
+		for (int i = 0; i < paths.length; i++) {
+			sizes[i] = buffer.getInt();
+			lengths[i] = buffer.getInt();
+			expected += 8L * lengths[i];
+		}
+		if (expected != buffer.capacity()) {
+			//文件被截断
+			return null;
+		}
+
+		DoubleArrayTrie[] tries = new DoubleArrayTrie[paths.length];
+		int position = buffer.position();
+		for (int i = 0; i < paths.length; i++) {
+			IntBuffer base = slice(buffer, position, lengths[i]);
+			position += 4 * lengths[i];
+			IntBuffer check = slice(buffer, position, lengths[i]);
+			position += 4 * lengths[i];
+			tries[i] = new DoubleArrayTrie(base, check, sizes[i]);
+		}
+		return tries;
+	}
+
+	/**
+	 * 从文本词典构建全部双数组Trie
+	 */
+	private static DoubleArrayTrie[] build() throws IOException {
+		String[] paths = DictReader.PATH_DIC_ALL;
+		DoubleArrayTrie[] tries = new DoubleArrayTrie[paths.length];
+		for (int i = 0; i < paths.length; i++) {
+			tries[i] = DoubleArrayTrie.build(DictReader.readWords(paths[i]));
+		}
+		return tries;
+	}
+
+	/**
+	 * 写入快照
+	 * 先写临时文件再改名，避免其他进程映射到写了一半的文件
+	 */
+	private static void write(File snapshot, DoubleArrayTrie[] tries) throws IOException {
+		String[] paths = DictReader.PATH_DIC_ALL;
+		ByteBuffer header = ByteBuffer.allocate(headerLength(paths.length)).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(paths.length);
+		for (String path : paths) {
+			File source = DictReader.dictFile(path);
+			header.putLong(source.length()).putLong(source.lastModified());
+		}
+		for (DoubleArrayTrie trie : tries) {
+			header.putInt(trie.size()).putInt(trie.getArrayLength());
+		}
+		header.flip();
+
+		File parent = snapshot.getAbsoluteFile().getParentFile();
+		File temp = File.createTempFile(snapshot.getName(), ".tmp", parent);
+		try {
+			try (RandomAccessFile file = new RandomAccessFile(temp, "rw");
+				 FileChannel channel = file.getChannel()) {
+				writeFully(channel, header);
+				for (DoubleArrayTrie trie : tries) {
+					writeFully(channel, toBytes(trie.getBase()));
+					writeFully(channel, toBytes(trie.getCheck()));
+				}
+				channel.force(true);
+			}
+			Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp.toPath());
+		}
+	}
+
+	private static int headerLength(int count) {
+		return 12 + count * 16 + count * 8;
+	}
+
+	private static IntBuffer slice(ByteBuffer buffer, int position, int length) {
+		ByteBuffer duplicate = buffer.duplicate();
+		duplicate.position(position);
+		duplicate.limit(position + 4 * length);
+		return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+	}
+
+	private static ByteBuffer toBytes(IntBuffer ints) {
+		ints.rewind();
+		ByteBuffer bytes = ByteBuffer.allocate(4 * ints.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+		bytes.asIntBuffer().put(ints);
+		return bytes;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
@@ -1,16 +1,25 @@
 package org.wltea.analyzer.dic;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedReader;
+import org.wltea.analyzer.cfg.Configuration;
+
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * IK Analyzer v3.2
  * 词典管理类,单子模式
+ * <p/>
+ * 每个Dictionary实例是一组不可变的词典快照，当前生效的实例通过原子引用发布，
+ * 调用reload()时在后台构建新实例并整体替换，读取方不加锁
  *
  * @author 林良益
  */
@@ -25,70 +34,119 @@ public class Dictionary {
 	public static final String PATH_DIC_PREP = "preposition.dic";
 	public static final String PATH_DIC_STOP = "stopword.dic";
 
+	/**
+	 * 词典类别
+	 */
+	public enum Type {
+		MAIN, // 主词典
+		SURNAME, // 姓氏词典
+		QUANTIFIER, // 量词词典
+		SUFFIX, // 后缀词典
+		PREP, // 副词，介词词典
+		STOP // 停止词
+	}
+
 
 	/*
-	 * 词典单子实例
+	 * 当前生效的词典实例
 	 */
-	private static final Dictionary singleton;
+	private static final AtomicReference<Dictionary> singleton;
 
 	/*
 	 * 词典初始化
 	 */
 	static {
-		singleton = new Dictionary();
+		singleton = new AtomicReference<>(new Dictionary());
 	}
 
 	/*
 	 * 主词典对象
 	 */
-	private DictSegment _MainDict;
+	private final IDictTrie _MainDict;
 	/*
 	 * 姓氏词典
 	 */
-	private DictSegment _SurnameDict;
+	private final IDictTrie _SurnameDict;
 	/*
 	 * 量词词典
 	 */
-	private DictSegment _QuantifierDict;
+	private final IDictTrie _QuantifierDict;
 	/*
 	 * 后缀词典
 	 */
-	private DictSegment _SuffixDict;
+	private final IDictTrie _SuffixDict;
 	/*
 	 * 副词，介词词典
 	 */
-	private DictSegment _PrepDict;
+	private final IDictTrie _PrepDict;
 	/*
 	 * 停止词集合
 	 */
-	private DictSegment _StopWords;
+	private final IDictTrie _StopWords;
+	/*
+	 * 主词典的Aho-Corasick自动机及构建时的主词典版本，主词典增删词条后在后台重新构建
+	 */
+	private volatile MainAutomaton _MainAutomaton;
+	/*
+	 * 主词典版本，每次增删词条加1
+	 */
+	private final AtomicInteger mainVersion = new AtomicInteger();
+	/*
+	 * 是否已有自动机的后台构建任务
+	 */
+	private final AtomicBoolean automatonBuilding = new AtomicBoolean();
 
 	private Dictionary() {
+		IDictTrie[] dicts;
 		try {
-			_MainDict = load(Dictionary.PATH_DIC_MAIN); //建立一个主词典实例
-			_SurnameDict = load(Dictionary.PATH_DIC_SURNAME); //建立一个姓氏词典实例
-			_QuantifierDict = load(Dictionary.PATH_DIC_QUANTIFIER); //建立一个量词典实例
-			_SuffixDict = load(Dictionary.PATH_DIC_SUFFIX); //建立一个后缀词典实例
-			_PrepDict = load(Dictionary.PATH_DIC_PREP); //建立一个介词\副词词典实例
-			_StopWords = load(Dictionary.PATH_DIC_STOP); //建立一个停止词典实例
+			File snapshot = Configuration.getDictSnapshot();
+			if (snapshot != null) {
+				//从词典快照映射全部词典
+				dicts = DictSnapshot.loadOrCompile(snapshot);
+			} else if (Configuration.isParallelDictLoad()) {
+				//并行读取构建全部词典
+				dicts = ParallelDictLoader.load();
+			} else {
+				dicts = new IDictTrie[DictReader.PATH_DIC_ALL.length];
+				dicts[0] = loadMainDict(); //建立一个主词典实例
+				dicts[1] = load(Dictionary.PATH_DIC_SURNAME); //建立一个姓氏词典实例
+				dicts[2] = load(Dictionary.PATH_DIC_QUANTIFIER); //建立一个量词典实例
+				dicts[3] = load(Dictionary.PATH_DIC_SUFFIX); //建立一个后缀词典实例
+				dicts[4] = load(Dictionary.PATH_DIC_PREP); //建立一个介词\副词词典实例
+				dicts[5] = load(Dictionary.PATH_DIC_STOP); //建立一个停止词典实例
+			}
 		} catch (IOException ex) {
 			throw new RuntimeException(ex);
 		}
+		_MainDict = dicts[0];
+		_SurnameDict = dicts[1];
+		_QuantifierDict = dicts[2];
+		_SuffixDict = dicts[3];
+		_PrepDict = dicts[4];
+		_StopWords = dicts[5];
+		if (Configuration.CJK_ENGINE_AC.equals(Configuration.getCJKEngine())) {
+			_MainAutomaton = new MainAutomaton(AhoCorasickAutomaton.build(_MainDict), 0);
+		}
+	}
+
+	/**
+	 * 按配置的引擎加载主词典
+	 */
+	private IDictTrie loadMainDict() throws IOException {
+		String engine = Configuration.getMainDictEngine();
+		if (Configuration.DICT_ENGINE_DATRIE.equals(engine)) {
+			return DoubleArrayTrie.build(DictReader.readWords(Dictionary.PATH_DIC_MAIN));
+		} else if (Configuration.DICT_ENGINE_DAWG.equals(engine)) {
+			return Dawg.build(DictReader.readWords(Dictionary.PATH_DIC_MAIN));
+		}
+		return load(Dictionary.PATH_DIC_MAIN);
 	}
 
 	private DictSegment load(String path) throws IOException {
 		DictSegment segment = new DictSegment((char) 0);
-		//读取主词典文件
-		InputStream is = new BufferedInputStream(new FileInputStream(new File("dict" + File.separator + path)));
-		BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"), 512);
-		String theWord;
-		do {
-			theWord = br.readLine();
-			if (theWord != null && !"".equals(theWord.trim())) {
-				segment.fillSegment(theWord.trim().toCharArray());
-			}
-		} while (theWord != null);
-		is.close();
+		for (String theWord : DictReader.readWords(path)) {
+			segment.fillSegment(theWord.toCharArray());
+		}
 		return segment;
 	}
 
@@ -103,68 +161,329 @@ public class Dictionary {
 	 * @return Dictionary
 	 */
 	public static Dictionary getInstance() {
-		return Dictionary.singleton;
+		return Dictionary.singleton.get();
+	}
+
+	/**
+	 * 重新加载全部词典
+	 * 在后台线程中按当前配置重新构建全部词典，构建完成后一次性原子替换当前词典实例。
+	 * 替换前已开始的分词继续使用旧实例，替换后开始的分词使用新实例；
+	 * 构建失败时当前词典保持不变，异常通过返回的Future抛出
+	 *
+	 * @return 新的词典实例
+	 */
+	public static Future<Dictionary> reload() {
+		return ReloadExecutor.EXECUTOR.submit(new Callable<Dictionary>() {
+			@Override
+			public Dictionary call() {
+				Dictionary dictionary = new Dictionary();
+				singleton.set(dictionary);
+				return dictionary;
+			}
+		});
+	}
+
+	/**
+	 * 主词典
+	 */
+	public IDictTrie getMainDict() {
+		return _MainDict;
+	}
+
+	/**
+	 * 姓氏词典
+	 */
+	public IDictTrie getSurnameDict() {
+		return _SurnameDict;
+	}
+
+	/**
+	 * 量词词典
+	 */
+	public IDictTrie getQuantifierDict() {
+		return _QuantifierDict;
+	}
+
+	/**
+	 * 后缀词典
+	 */
+	public IDictTrie getSuffixDict() {
+		return _SuffixDict;
+	}
+
+	/**
+	 * 副词，介词词典
+	 */
+	public IDictTrie getPrepDict() {
+		return _PrepDict;
+	}
+
+	/**
+	 * 停止词集合
+	 */
+	public IDictTrie getStopWords() {
+		return _StopWords;
+	}
+
+	/**
+	 * 主词典的Aho-Corasick自动机
+	 * 未构建或主词典增删过词条时，在词典加载线程中按当前主词典构建，构建完成前返回null，
+	 * 调用方改用逐个前缀匹配。不加锁，也不等待构建
+	 *
+	 * @return 与当前主词典一致的自动机，没有时返回null
+	 */
+	public AhoCorasickAutomaton getMainAutomaton() {
+		MainAutomaton automaton = _MainAutomaton;
+		if (automaton != null && automaton.version == mainVersion.get()) {
+			return automaton.automaton;
+		}
+		buildMainAutomaton();
+		return null;
+	}
+
+	/**
+	 * 在词典加载线程中构建主词典的自动机，已有构建任务时不重复提交
+	 * 构建期间主词典又被修改时重新构建，直到与当前版本一致
+	 */
+	private void buildMainAutomaton() {
+		if (!automatonBuilding.compareAndSet(false, true)) {
+			return;
+		}
+		ReloadExecutor.EXECUTOR.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					int version;
+					do {
+						version = mainVersion.get();
+						_MainAutomaton = new MainAutomaton(AhoCorasickAutomaton.build(_MainDict), version);
+					} while (version != mainVersion.get());
+				} finally {
+					automatonBuilding.set(false);
+				}
+				//结束构建任务之前的修改可能没有提交新的任务
+				MainAutomaton automaton = _MainAutomaton;
+				if (automaton.version != mainVersion.get()) {
+					buildMainAutomaton();
+				}
+			}
+		});
+	}
+
+	/**
+	 * 获取指定类别的词典
+	 */
+	public IDictTrie getDict(Type type) {
+		switch (type) {
+			case MAIN:
+				return _MainDict;
+			case SURNAME:
+				return _SurnameDict;
+			case QUANTIFIER:
+				return _QuantifierDict;
+			case SUFFIX:
+				return _SuffixDict;
+			case PREP:
+				return _PrepDict;
+			case STOP:
+				return _StopWords;
+			default:
+				throw new IllegalArgumentException("invalid type:" + type);
+		}
+	}
+
+	/**
+	 * 向词典中添加词条
+	 * 添加立即对所有分词生效，匹配过程不加锁；
+	 * 添加的词条只属于当前词典实例，reload()之后以词典文件为准。
+	 * 使用Aho-Corasick自动机时，主词典每次修改后自动机在后台整体重建，重建完成前的分词改用逐个前缀匹配，批量修改请使用addWords
+	 *
+	 * @throws UnsupportedOperationException 词典为编译后的只读词典时
+	 */
+	public void addWord(Type type, String word) {
+		DictSegment segment = getMutableDict(type);
+		if (word != null && word.trim().length() > 0) {
+			segment.fillSegment(word.trim().toCharArray());
+			modified(type);
+		}
+	}
+
+	/**
+	 * 向词典中批量添加词条
+	 *
+	 * @throws UnsupportedOperationException 词典为编译后的只读词典时
+	 */
+	public void addWords(Type type, Collection<String> words) {
+		DictSegment segment = getMutableDict(type);
+		synchronized (segment) {
+			for (String word : words) {
+				if (word != null && word.trim().length() > 0) {
+					char[] chars = word.trim().toCharArray();
+					segment.fill(chars, 0, chars.length);
+				}
+			}
+		}
+		modified(type);
+	}
+
+	/**
+	 * 从词典中删除词条
+	 *
+	 * @return 词典中存在该词并已删除时返回true
+	 * @throws UnsupportedOperationException 词典为编译后的只读词典时
+	 */
+	public boolean removeWord(Type type, String word) {
+		DictSegment segment = getMutableDict(type);
+		if (word != null && word.trim().length() > 0 && segment.removeSegment(word.trim().toCharArray())) {
+			modified(type);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * 词典修改后，由其生成的自动机过期，在后台重新构建
+	 * 修改前开始的构建记录的是旧版本，构建完成后不会被使用
+	 */
+	private void modified(Type type) {
+		if (type == Type.MAIN) {
+			mainVersion.incrementAndGet();
+			if (_MainAutomaton != null) {
+				buildMainAutomaton();
+			}
+		}
+	}
+
+	private DictSegment getMutableDict(Type type) {
+		IDictTrie dict = getDict(type);
+		if (!(dict instanceof DictSegment)) {
+			throw new UnsupportedOperationException("编译后的词典为只读，请修改词典文件后调用reload()");
+		}
+		return (DictSegment) dict;
+	}
+
+	/**
+	 * 词典内存报告
+	 * 列出每个词典的存储结构和估算占用的内存字节数
+	 *
+	 * @return String
+	 */
+	public String getMemoryReport() {
+		StringBuilder report = new StringBuilder();
+		long total = 0;
+		for (Type type : Type.values()) {
+			IDictTrie dict = getDict(type);
+			long bytes = dict.memoryUsage();
+			report.append(String.format("%-12s%-18s%,14d bytes%n", type, dict.getClass().getSimpleName(), bytes));
+			total += bytes;
+		}
+		MainAutomaton automaton = _MainAutomaton;
+		if (automaton != null) {
+			long bytes = automaton.automaton.memoryUsage(_MainDict instanceof DoubleArrayTrie);
+			report.append(String.format("%-12s%-18s%,14d bytes%n", Type.MAIN, "AhoCorasick", bytes));
+			total += bytes;
+		}
+		report.append(String.format("%-30s%,14d bytes%n", "TOTAL", total));
+		return report.toString();
 	}
 
 	/**
 	 * 检索匹配主词典
 	 *
 	 * @return Hit 匹配结果描述
+	 * @deprecated 每次调用都会新建Hit，请使用getInstance().getMainDict().matchInto(charArray, begin, length, hit)复用调用方的Hit
 	 */
+	@Deprecated
 	public static Hit matchInMainDict(char[] charArray, int begin, int length) {
-		return singleton._MainDict.match(charArray, begin, length);
+		return getInstance()._MainDict.match(charArray, begin, length);
 	}
 
 	/**
 	 * 检索匹配主词典,从已匹配的Hit中直接取出DictSegment，继续向下匹配
 	 */
 	public static Hit matchWithHit(char[] charArray, int currentIndex, Hit matchedHit) {
-		DictSegment ds = matchedHit.getMatchedDictSegment();
-		return ds.match(charArray, currentIndex, 1, matchedHit);
+		return matchedHit.getMatchedTrie().match(charArray, currentIndex, 1, matchedHit);
 	}
 
 	/**
 	 * 检索匹配姓氏词典
 	 *
 	 * @return Hit 匹配结果描述
+	 * @deprecated 每次调用都会新建Hit，请使用getInstance().getSurnameDict().matchInto(charArray, begin, length, hit)复用调用方的Hit
 	 */
+	@Deprecated
 	public static Hit matchInSurnameDict(char[] charArray, int begin, int length) {
-		return singleton._SurnameDict.match(charArray, begin, length);
+		return getInstance()._SurnameDict.match(charArray, begin, length);
 	}
 
 	/**
 	 * 检索匹配量词词典
 	 *
 	 * @return Hit 匹配结果描述
+	 * @deprecated 每次调用都会新建Hit，请使用getInstance().getQuantifierDict().matchInto(charArray, begin, length, hit)复用调用方的Hit
 	 */
+	@Deprecated
 	public static Hit matchInQuantifierDict(char[] charArray, int begin, int length) {
-		return singleton._QuantifierDict.match(charArray, begin, length);
+		return getInstance()._QuantifierDict.match(charArray, begin, length);
 	}
 
 	/**
 	 * 检索匹配在后缀词典
 	 *
 	 * @return Hit 匹配结果描述
+	 * @deprecated 每次调用都会新建Hit，请使用getInstance().getSuffixDict().matchInto(charArray, begin, length, hit)复用调用方的Hit
 	 */
+	@Deprecated
 	public static Hit matchInSuffixDict(char[] charArray, int begin, int length) {
-		return singleton._SuffixDict.match(charArray, begin, length);
+		return getInstance()._SuffixDict.match(charArray, begin, length);
 	}
 
 	/**
 	 * 检索匹配介词、副词词典
 	 *
 	 * @return Hit 匹配结果描述
+	 * @deprecated 每次调用都会新建Hit，请使用getInstance().getPrepDict().matchInto(charArray, begin, length, hit)复用调用方的Hit
 	 */
+	@Deprecated
 	public static Hit matchInPrepDict(char[] charArray, int begin, int length) {
-		return singleton._PrepDict.match(charArray, begin, length);
+		return getInstance()._PrepDict.match(charArray, begin, length);
 	}
 
 	/**
 	 * 判断是否是停止词
 	 *
 	 * @return boolean
+	 * @deprecated 每次调用都会新建Hit，请使用getInstance().getStopWords().matchInto(charArray, begin, length, hit)复用调用方的Hit
 	 */
+	@Deprecated
 	public static boolean isStopWord(char[] charArray, int begin, int length) {
-		return singleton._StopWords.match(charArray, begin, length).isMatch();
+		return getInstance()._StopWords.match(charArray, begin, length).isMatch();
+	}
+
+	/**
+	 * 主词典的自动机及构建时的主词典版本，一次发布
+	 */
+	private static final class MainAutomaton {
+		private final AhoCorasickAutomaton automaton;
+		private final int version;
+
+		MainAutomaton(AhoCorasickAutomaton automaton, int version) {
+			this.automaton = automaton;
+			this.version = version;
+		}
+	}
+
+	/**
+	 * 词典重新加载线程，同一时刻只进行一次加载，也用于构建主词典的自动机
+	 */
+	private static class ReloadExecutor {
+		private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ik-dictionary-reload");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
 	}
 }
@@ -0,0 +1,411 @@
+package org.wltea.analyzer.dic;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 双数组Trie词典
+ * 使用base/check两个int数组存储整个词典树，匹配时只做数组下标运算，不产生对象
+ * <p/>
+ * 节点t的父节点为s，当且仅当 check[t] == s + 1 且 t == (base[s] >>> 1) + c
+ * base的最低位表示从根节点到当前节点的路径是否构成一个词，
+ * 其余位为子节点的偏移量，为0表示当前节点没有子节点
+ * 根节点固定为0
+ * <p/>
+ * base/check既可以是堆内数组，也可以是内存映射的词典快照（见DictSnapshot），匹配逻辑相同
+ */
+public class DoubleArrayTrie implements IDictTrie {
+
+	//根节点下标
+	private static final int ROOT = 0;
+
+	//词尾标识位
+	private static final int WORD_END = 1;
+
+	//构建时从最小可用位置开始尝试的次数上限，超过后跳到已用区域末尾附近查找，以空间换构建速度
+	private static final int MAX_FIRST_FIT_TRIES = 1024;
+
+	private final IntBuffer base;
+
+	private final IntBuffer check;
+
+	//双数组长度
+	private final int arrayLength;
+
+	//词条数目
+	private final int size;
+
+	DoubleArrayTrie(IntBuffer base, IntBuffer check, int size) {
+		if (base.limit() != check.limit()) {
+			throw new IllegalArgumentException("base/check长度不一致");
+		}
+		this.base = base;
+		this.check = check;
+		this.arrayLength = base.limit();
+		this.size = size;
+	}
+
+	/**
+	 * 根据词条构建双数组Trie
+	 *
+	 * @param words 词条集合，允许重复
+	 * @return DoubleArrayTrie
+	 */
+	public static DoubleArrayTrie build(Collection<String> words) {
+		String[] keys = words.toArray(new String[words.size()]);
+		Arrays.sort(keys);
+		//去重
+		int count = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i].length() > 0 && (count == 0 || !keys[i].equals(keys[count - 1]))) {
+				keys[count++] = keys[i];
+			}
+		}
+		Builder builder = new Builder(keys, count);
+		if (count > 0) {
+			builder.insert(ROOT, 0, 0, count);
+		}
+		return new DoubleArrayTrie(IntBuffer.wrap(Arrays.copyOf(builder.base, builder.maxIndex + 1)),
+				IntBuffer.wrap(Arrays.copyOf(builder.check, builder.maxIndex + 1)), count);
+	}
+
+	/**
+	 * 获取词条数目
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 获取双数组的长度
+	 */
+	public int getArrayLength() {
+		return arrayLength;
+	}
+
+	/**
+	 * 估算占用的内存
+	 * 映射的词典快照不占用堆内存，这里同样计入base/check的字节数
+	 */
+	public long memoryUsage() {
+		//IntBuffer对象按两个数组头估算
+		return MemoryUsage.ofObject(2 * MemoryUsage.REFERENCE + 8)
+				+ MemoryUsage.ofIntArray(base.limit())
+				+ MemoryUsage.ofIntArray(check.limit());
+	}
+
+	IntBuffer getBase() {
+		return base.duplicate();
+	}
+
+	IntBuffer getCheck() {
+		return check.duplicate();
+	}
+
+	/**
+	 * 查找node节点下字符c对应的子节点
+	 *
+	 * @return 没有找到返回-1
+	 */
+	int child(int node, char c) {
+		int offset = base.get(node) >>> 1;
+		if (offset == 0) {
+			return -1;
+		}
+		int next = offset + c;
+		return next < arrayLength && check.get(next) == node + 1 ? next : -1;
+	}
+
+	/**
+	 * 获取node节点的父节点
+	 *
+	 * @return 根节点或空闲位置返回负数
+	 */
+	int parent(int node) {
+		return check.get(node) - 1;
+	}
+
+	/**
+	 * 获取非根节点node上的字符
+	 */
+	char nodeChar(int node) {
+		return (char) (node - (base.get(parent(node)) >>> 1));
+	}
+
+	/**
+	 * 从根节点到node节点的路径是否构成一个词
+	 */
+	boolean isWord(int node) {
+		return (base.get(node) & WORD_END) != 0;
+	}
+
+	/**
+	 * node节点是否有子节点
+	 */
+	boolean hasChildren(int node) {
+		return (base.get(node) >>> 1) != 0;
+	}
+
+	/**
+	 * 匹配词段
+	 */
+	public Hit match(char[] charArray) {
+		return this.match(charArray, 0, charArray.length, null);
+	}
+
+	/**
+	 * 匹配词段
+	 */
+	public Hit match(char[] charArray, int begin, int length) {
+		return this.match(charArray, begin, length, null);
+	}
+
+	/**
+	 * 从根节点开始匹配词段，结果写入result
+	 */
+	public Hit matchInto(char[] charArray, int begin, int length, Hit result) {
+		result.reset(begin);
+		return this.match(charArray, begin, length, result);
+	}
+
+	/**
+	 * 匹配词段
+	 * 与DictSegment保持一致：Hit的end记录最后一个参与匹配的字符位置
+	 */
+	public Hit match(char[] charArray, int begin, int length, Hit searchHit) {
+		int node;
+		if (searchHit == null) {
+			// 如果hit为空，新建，并从根节点开始匹配
+			searchHit = new Hit();
+			searchHit.setBegin(begin);
+			node = ROOT;
+		} else {
+			// 否则要将HIT状态重置，从hit记录的节点继续匹配
+			searchHit.setUnMatch();
+			node = searchHit.getMatchedNode();
+		}
+		searchHit.setEnd(begin);
+		if (length < 1) {
+			return searchHit;
+		}
+
+		int end = begin + length;
+		for (int i = begin; i < end; i++) {
+			searchHit.setEnd(i);
+			int offset = base.get(node) >>> 1;
+			if (offset == 0) {
+				//没有子节点
+				return searchHit;
+			}
+			int next = offset + charArray[i];
+			if (next >= arrayLength || check.get(next) != node + 1) {
+				//没有找到对应的子节点
+				return searchHit;
+			}
+			node = next;
+		}
+
+		int state = base.get(node);
+		if ((state & WORD_END) != 0) {
+			//添加HIT状态为完全匹配
+			searchHit.setMatch();
+		}
+		if ((state >>> 1) != 0) {
+			//添加HIT状态为前缀匹配
+			searchHit.setPrefix();
+			//记录当前位置的节点
+			searchHit.setMatchedTrie(this);
+			searchHit.setMatchedNode(node);
+		}
+		return searchHit;
+	}
+
+	/**
+	 * 找出以begin开始的全部词
+	 */
+	public int matchAll(char[] charArray, int begin, int length, int[] ends) {
+		int count = 0;
+		int node = ROOT;
+		int end = begin + length;
+		for (int i = begin; i < end && count < ends.length; i++) {
+			node = child(node, charArray[i]);
+			if (node < 0) {
+				break;
+			}
+			if (isWord(node)) {
+				ends[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 找出以begin开始的最长的词
+	 */
+	public int matchLongest(char[] charArray, int begin, int length) {
+		int longest = -1;
+		int node = ROOT;
+		int end = begin + length;
+		for (int i = begin; i < end; i++) {
+			node = child(node, charArray[i]);
+			if (node < 0) {
+				break;
+			}
+			if (isWord(node)) {
+				longest = i;
+			}
+		}
+		return longest;
+	}
+
+	/**
+	 * 双数组构建器
+	 * 按字典序对词条分段，逐层为子节点分配位置
+	 */
+	private static class Builder {
+
+		private final String[] keys;
+
+		private int[] base;
+
+		private int[] check;
+
+		//空闲位置索引：0表示该位置空闲，否则指向之后可能空闲的位置（带路径压缩）
+		private int[] nextFree;
+
+		//已使用的最大下标
+		private int maxIndex;
+
+		Builder(String[] keys, int count) {
+			this.keys = keys;
+			int capacity = Math.max(count * 2, 65536 * 2);
+			this.base = new int[capacity];
+			this.check = new int[capacity];
+			this.nextFree = new int[capacity];
+			//根节点占位
+			occupy(ROOT, -1);
+		}
+
+		/**
+		 * 构建node节点的子树
+		 * keys[begin, end)为以node路径为前缀的词条，depth为前缀长度
+		 */
+		void insert(int node, int depth, int begin, int end) {
+			int wordEnd = 0;
+			if (keys[begin].length() == depth) {
+				//排序后，与前缀等长的词条一定排在最前
+				wordEnd = WORD_END;
+				begin++;
+			}
+			if (begin == end) {
+				base[node] = wordEnd;
+				return;
+			}
+
+			//统计子节点字符
+			int childCount = 0;
+			char last = 0;
+			for (int i = begin; i < end; i++) {
+				char c = keys[i].charAt(depth);
+				if (childCount == 0 || c != last) {
+					childCount++;
+					last = c;
+				}
+			}
+			char[] children = new char[childCount];
+			int[] bounds = new int[childCount + 1];
+			childCount = 0;
+			for (int i = begin; i < end; i++) {
+				char c = keys[i].charAt(depth);
+				if (childCount == 0 || c != children[childCount - 1]) {
+					children[childCount] = c;
+					bounds[childCount] = i;
+					childCount++;
+				}
+			}
+			bounds[childCount] = end;
+
+			int offset = findOffset(children);
+			for (char c : children) {
+				int child = offset + c;
+				occupy(child, node + 1);
+				if (child > maxIndex) {
+					maxIndex = child;
+				}
+			}
+			base[node] = (offset << 1) | wordEnd;
+
+			for (int i = 0; i < childCount; i++) {
+				insert(offset + children[i], depth + 1, bounds[i], bounds[i + 1]);
+			}
+		}
+
+		/**
+		 * 查找能容纳全部子节点的偏移量
+		 * 从第一个子节点可用的最小位置开始，逐个尝试空闲位置
+		 */
+		private int findOffset(char[] children) {
+			char first = children[0];
+			char last = children[children.length - 1];
+			int pos = findFree(first + 1);
+			int tries = 0;
+			outer:
+			while (true) {
+				int offset = pos - first;
+				ensureCapacity(offset + last);
+				for (int i = 1; i < children.length; i++) {
+					if (check[offset + children[i]] != 0) {
+						if (++tries == MAX_FIRST_FIT_TRIES) {
+							//前部已经很密集，直接到已用区域末尾附近查找
+							pos = findFree(Math.max(pos + 1, maxIndex - 2 * (last - first)));
+						} else {
+							pos = findFree(pos + 1);
+						}
+						continue outer;
+					}
+				}
+				return offset;
+			}
+		}
+
+		/**
+		 * 查找不小于pos的第一个空闲位置
+		 */
+		private int findFree(int pos) {
+			int free = pos;
+			while (true) {
+				ensureCapacity(free);
+				if (nextFree[free] == 0) {
+					break;
+				}
+				free = nextFree[free];
+			}
+			//路径压缩
+			while (pos != free) {
+				int next = nextFree[pos];
+				nextFree[pos] = free;
+				pos = next;
+			}
+			return free;
+		}
+
+		/**
+		 * 占用index位置
+		 */
+		private void occupy(int index, int parent) {
+			ensureCapacity(index + 1);
+			check[index] = parent;
+			nextFree[index] = index + 1;
+		}
+
+		private void ensureCapacity(int index) {
+			if (index >= check.length) {
+				int capacity = Math.max(index + 1, check.length + (check.length >> 1));
+				base = Arrays.copyOf(base, capacity);
+				check = Arrays.copyOf(check, capacity);
+				nextFree = Arrays.copyOf(nextFree, capacity);
+			}
+		}
+	}
+}
@@ -22,7 +22,9 @@ public class Hit {
 	private int hitState = UN_MATCH;
 	
 	//记录词典匹配过程中，当前匹配到的词典分支节点
-	private DictSegment matchedDictSegment; 
+	private IDictTrie matchedTrie;
+	//双数组Trie中当前匹配到的节点下标
+	private int matchedNode;
 	/*
 	 * 词段开始位置
 	 */
@@ -33,6 +35,19 @@ public class Hit {
 	private int end;
 	
 	
+	/**
+	 * 重置为从词典根节点开始匹配的初始状态，用于复用Hit对象
+	 *
+	 * @param begin 词段开始位置
+	 */
+	public void reset(int begin) {
+		this.hitState = UN_MATCH;
+		this.matchedTrie = null;
+		this.matchedNode = 0;
+		this.begin = begin;
+		this.end = begin;
+	}
+
 	/**
 	 * 判断是否完全匹配
 	 */
@@ -65,12 +80,20 @@ public class Hit {
 		this.hitState = UN_MATCH;
 	}
 	
-	public DictSegment getMatchedDictSegment() {
-		return matchedDictSegment;
+	public IDictTrie getMatchedTrie() {
+		return matchedTrie;
 	}
 	
-	public void setMatchedDictSegment(DictSegment matchedDictSegment) {
-		this.matchedDictSegment = matchedDictSegment;
+	public void setMatchedTrie(IDictTrie matchedTrie) {
+		this.matchedTrie = matchedTrie;
+	}
+
+	public int getMatchedNode() {
+		return matchedNode;
+	}
+
+	public void setMatchedNode(int matchedNode) {
+		this.matchedNode = matchedNode;
 	}
 	
 	public int getBegin() {
@@ -0,0 +1,70 @@
+package org.wltea.analyzer.dic;
+
+/**
+ * 词典树接口
+ * 词典的各种存储实现（DictSegment树、双数组Trie等）都通过该接口进行词语匹配
+ */
+public interface IDictTrie {
+
+	/**
+	 * 从根节点开始匹配词段
+	 *
+	 * @param charArray 文本
+	 * @param begin     起始位置
+	 * @param length    匹配长度
+	 * @return Hit 匹配结果描述
+	 */
+	Hit match(char[] charArray, int begin, int length);
+
+	/**
+	 * 从searchHit记录的节点继续匹配词段
+	 * searchHit为null时从根节点开始匹配，并新建Hit
+	 *
+	 * @param charArray 文本
+	 * @param begin     起始位置
+	 * @param length    匹配长度
+	 * @param searchHit 前一次匹配的结果
+	 * @return Hit 匹配结果描述
+	 */
+	Hit match(char[] charArray, int begin, int length, Hit searchHit);
+
+	/**
+	 * 从根节点开始匹配词段，结果写入调用方持有的result，不新建Hit
+	 *
+	 * @param charArray 文本
+	 * @param begin     起始位置
+	 * @param length    匹配长度
+	 * @param result    复用的Hit，原有状态被覆盖
+	 * @return result
+	 */
+	Hit matchInto(char[] charArray, int begin, int length, Hit result);
+
+	/**
+	 * 从begin开始沿词典树只走一遍，找出以begin开始的全部词
+	 * 词按由短到长的顺序写入ends，ends写满或没有更长的前缀时停止
+	 *
+	 * @param charArray 文本
+	 * @param begin     起始位置
+	 * @param length    最多匹配的长度
+	 * @param ends      存放每个词的结束位置（含）
+	 * @return 找到的词数
+	 */
+	int matchAll(char[] charArray, int begin, int length, int[] ends);
+
+	/**
+	 * 从begin开始沿词典树只走一遍，找出以begin开始的最长的词
+	 *
+	 * @param charArray 文本
+	 * @param begin     起始位置
+	 * @param length    最多匹配的长度
+	 * @return 最长的词的结束位置（含），没有词时返回-1
+	 */
+	int matchLongest(char[] charArray, int begin, int length);
+
+	/**
+	 * 估算词典占用的内存字节数
+	 *
+	 * @return long
+	 */
+	long memoryUsage();
+}
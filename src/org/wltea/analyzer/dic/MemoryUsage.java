@@ -0,0 +1,40 @@
+package org.wltea.analyzer.dic;
+
+/**
+ * 堆内存估算
+ * 按64位JVM、开启压缩指针（堆小于32G时的默认设置）、8字节对齐计算
+ */
+final class MemoryUsage {
+
+	//对象头
+	static final int OBJECT_HEADER = 12;
+
+	//数组头（对象头 + 长度）
+	static final int ARRAY_HEADER = 16;
+
+	//对象引用
+	static final int REFERENCE = 4;
+
+	private MemoryUsage() {
+	}
+
+	static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+
+	static long ofObject(long fieldBytes) {
+		return align(OBJECT_HEADER + fieldBytes);
+	}
+
+	static long ofCharArray(int length) {
+		return align(ARRAY_HEADER + 2L * length);
+	}
+
+	static long ofIntArray(int length) {
+		return align(ARRAY_HEADER + 4L * length);
+	}
+
+	static long ofReferenceArray(int length) {
+		return align(ARRAY_HEADER + (long) REFERENCE * length);
+	}
+}
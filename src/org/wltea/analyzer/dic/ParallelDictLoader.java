@@ -0,0 +1,167 @@
+package org.wltea.analyzer.dic;
+
+import org.wltea.analyzer.cfg.Configuration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 并行词典加载
+ * 全部词典同时读取和构建；主词典按首字划分为若干区间，各区间的子树在ForkJoinPool中无锁构建，
+ * 最后按首字顺序合并到根节点
+ */
+class ParallelDictLoader {
+
+	//每个分区的目标词条数
+	private static final int PARTITION_SIZE = 4096;
+
+	private ParallelDictLoader() {
+	}
+
+	/**
+	 * 并行加载全部词典
+	 *
+	 * @return 词典，顺序与DictReader.PATH_DIC_ALL一致
+	 */
+	static IDictTrie[] load() {
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			return pool.invoke(new LoadAllTask());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * 按首字将词条分区，每个分区覆盖一段连续的首字区间，分区之间词条数大致均衡
+	 */
+	private static List<List<String>> partition(List<String> words) {
+		int[] counts = new int[Character.MAX_VALUE + 1];
+		for (String word : words) {
+			counts[word.charAt(0)]++;
+		}
+		//首字到分区的映射
+		int[] partitionOf = new int[Character.MAX_VALUE + 1];
+		int partition = 0;
+		int filled = 0;
+		for (int c = 0; c <= Character.MAX_VALUE; c++) {
+			if (filled >= PARTITION_SIZE) {
+				partition++;
+				filled = 0;
+			}
+			partitionOf[c] = partition;
+			filled += counts[c];
+		}
+		List<List<String>> partitions = new ArrayList<>(partition + 1);
+		for (int i = 0; i <= partition; i++) {
+			partitions.add(new ArrayList<String>());
+		}
+		for (String word : words) {
+			partitions.get(partitionOf[word.charAt(0)]).add(word);
+		}
+		return partitions;
+	}
+
+	/**
+	 * 加载全部词典
+	 */
+	private static class LoadAllTask extends RecursiveTask<IDictTrie[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected IDictTrie[] compute() {
+			String[] paths = DictReader.PATH_DIC_ALL;
+			List<LoadTask> tasks = new ArrayList<>(paths.length);
+			for (String path : paths) {
+				tasks.add(new LoadTask(path));
+			}
+			invokeAll(tasks);
+			IDictTrie[] dicts = new IDictTrie[paths.length];
+			for (int i = 0; i < paths.length; i++) {
+				dicts[i] = tasks.get(i).join();
+			}
+			return dicts;
+		}
+	}
+
+	/**
+	 * 读取并构建单个词典
+	 */
+	private static class LoadTask extends RecursiveTask<IDictTrie> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String path;
+
+		LoadTask(String path) {
+			this.path = path;
+		}
+
+		@Override
+		protected IDictTrie compute() {
+			List<String> words;
+			try {
+				words = DictReader.readWords(path);
+			} catch (IOException ex) {
+				throw new RuntimeException(ex);
+			}
+			if (Dictionary.PATH_DIC_MAIN.equals(path)) {
+				String engine = Configuration.getMainDictEngine();
+				if (Configuration.DICT_ENGINE_DATRIE.equals(engine)) {
+					return DoubleArrayTrie.build(words);
+				} else if (Configuration.DICT_ENGINE_DAWG.equals(engine)) {
+					return Dawg.build(words);
+				}
+			}
+			if (words.isEmpty()) {
+				return new DictSegment((char) 0);
+			}
+			List<List<String>> partitions = partition(words);
+			return new SubtreeTask(partitions, 0, partitions.size()).compute();
+		}
+	}
+
+	/**
+	 * 构建partitions[begin, end)对应的子树，返回以这些子树为子节点的临时根节点
+	 */
+	private static class SubtreeTask extends RecursiveTask<DictSegment> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<List<String>> partitions;
+
+		private final int begin;
+
+		private final int end;
+
+		SubtreeTask(List<List<String>> partitions, int begin, int end) {
+			this.partitions = partitions;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		protected DictSegment compute() {
+			if (end - begin == 1) {
+				//子树只由当前线程访问，不需要加锁
+				DictSegment segment = new DictSegment((char) 0);
+				for (String word : partitions.get(begin)) {
+					segment.fill(word.toCharArray(), 0, word.length());
+				}
+				return segment;
+			}
+			int middle = (begin + end) >>> 1;
+			SubtreeTask left = new SubtreeTask(partitions, begin, middle);
+			SubtreeTask right = new SubtreeTask(partitions, middle, end);
+			right.fork();
+			DictSegment segment = left.compute();
+			//分区按首字升序排列，右侧子树的首字都大于左侧
+			segment.appendChildren(right.join());
+			return segment;
+		}
+	}
+}
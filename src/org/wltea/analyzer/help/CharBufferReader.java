@@ -0,0 +1,49 @@
+package org.wltea.analyzer.help;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * 读取CharBuffer的Reader
+ * 字符直接从CharBuffer复制到调用方的数组，不加锁，也不经过中间缓冲；
+ * 从CharBuffer的副本读取，不改变原CharBuffer的位置
+ * <p/>
+ * 不是线程安全的
+ */
+public final class CharBufferReader extends Reader {
+
+	private final CharBuffer buffer;
+
+	public CharBufferReader(CharBuffer buffer) {
+		this.buffer = buffer.duplicate();
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+		int count = Math.min(len, buffer.remaining());
+		buffer.get(cbuf, off, count);
+		return count;
+	}
+
+	@Override
+	public long skip(long n) {
+		int count = (int) Math.min(Math.max(n, 0), buffer.remaining());
+		buffer.position(buffer.position() + count);
+		return count;
+	}
+
+	@Override
+	public boolean ready() {
+		return true;
+	}
+
+	@Override
+	public void close() {
+	}
+}
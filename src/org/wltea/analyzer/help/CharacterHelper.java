@@ -2,27 +2,140 @@ package org.wltea.analyzer.help;
 
 /**
  * 字符集识别辅助工具类
+ * 每个char的规格化结果和字符类别预先计算到一张65536项的表中，查询只需一次数组访问：
+ * 低16位为规格化后的字符，高位为该字符本身的类别标志，每个字符至少属于一个类别
  *
  * @author 林良益
  */
 public class CharacterHelper {
 
+	//空白字符
+	public static final int CHAR_SPACE = 1 << 16;
+
+	//英文字母
+	public static final int CHAR_ENGLISH = 1 << 17;
+
+	//阿拉伯数字
+	public static final int CHAR_ARABIC = 1 << 18;
+
+	//CJK字符
+	public static final int CHAR_CJK = 1 << 19;
+
+	//字母链接符号，见CONNECTOR_CHARS
+	public static final int CHAR_CONNECTOR = 1 << 20;
+
+	//阿拉伯数词链接符号，见NUM_MID_CHARS
+	public static final int CHAR_NUM_MID = 1 << 21;
+
+	//序数词（数词前缀），见NUM_PRE_CHARS
+	public static final int CHAR_NUM_PRE = 1 << 22;
+
+	//中文数词，见CHN_NUM_CHARS
+	public static final int CHAR_CHN_NUM = 1 << 23;
+
+	//中文数词连接符，见CHN_NUM_MID_CHARS
+	public static final int CHAR_CHN_NUM_MID = 1 << 24;
+
+	//约数词（数词结尾），见NUM_END_CHARS
+	public static final int CHAR_NUM_END = 1 << 25;
+
+	//书名号《
+	public static final int CHAR_BOOK_TITLE = 1 << 26;
+
+	//不属于以上类别的字符
+	public static final int CHAR_OTHER = 1 << 27;
+
+	//所有的可能数词
+	public static final int CHAR_NUMBER = CHAR_ARABIC | CHAR_NUM_MID | CHAR_NUM_PRE | CHAR_CHN_NUM
+			| CHAR_CHN_NUM_MID | CHAR_NUM_END;
+
+	//字母链接符号
+	public static final String CONNECTOR_CHARS = ":+-_.@&/\\";
+
+	//阿拉伯数词链接符号
+	public static final String NUM_MID_CHARS = ",./:Ee";
+
+	//序数词（数词前缀）
+	public static final String NUM_PRE_CHARS = "第初";
+
+	//中文数词
+	public static final String CHN_NUM_CHARS = "○一二两三四五六七八九十零壹贰叁肆伍陆柒捌玖拾百千万亿拾佰仟萬億兆卅廿";
+
+	//中文数词连接符
+	public static final String CHN_NUM_MID_CHARS = "点";
+
+	//约数词（数词结尾）
+	public static final String NUM_END_CHARS = "几多余半";
+
+	private static final int[] CHAR_TABLE = new int[Character.MAX_VALUE + 1];
+
+	static {
+		for (int c = 0; c <= Character.MAX_VALUE; c++) {
+			char input = (char) c;
+			int type = 0;
+			if (input == 8 || input == 9
+					|| input == 10 || input == 13
+					|| input == 32 || input == 160) {
+				type |= CHAR_SPACE;
+			}
+			if ((input >= 'a' && input <= 'z')
+					|| (input >= 'A' && input <= 'Z')) {
+				type |= CHAR_ENGLISH;
+			}
+			if (input >= '0' && input <= '9') {
+				type |= CHAR_ARABIC;
+			}
+			if (isCJKBlock(input)) {
+				type |= CHAR_CJK;
+			}
+			CHAR_TABLE[c] = type | regularizeChar(input);
+		}
+		CHAR_TABLE['《'] |= CHAR_BOOK_TITLE;
+		mark(CONNECTOR_CHARS, CHAR_CONNECTOR);
+		mark(NUM_MID_CHARS, CHAR_NUM_MID);
+		mark(NUM_PRE_CHARS, CHAR_NUM_PRE);
+		mark(CHN_NUM_CHARS, CHAR_CHN_NUM);
+		mark(CHN_NUM_MID_CHARS, CHAR_CHN_NUM_MID);
+		mark(NUM_END_CHARS, CHAR_NUM_END);
+		for (int c = 0; c <= Character.MAX_VALUE; c++) {
+			if (CHAR_TABLE[c] >>> 16 == 0) {
+				CHAR_TABLE[c] |= CHAR_OTHER;
+			}
+		}
+	}
+
+	private static void mark(String chars, int type) {
+		for (int i = 0; i < chars.length(); i++) {
+			CHAR_TABLE[chars.charAt(i)] |= type;
+		}
+	}
+
+	/**
+	 * 查询字符的类别标志和规格化结果
+	 *
+	 * @return 低16位为规格化后的字符，高位为CHAR_*类别标志
+	 */
+	public static int charType(char input) {
+		return CHAR_TABLE[input];
+	}
+
 	public static boolean isSpaceLetter(char input) {
-		return input == 8 || input == 9
-				|| input == 10 || input == 13
-				|| input == 32 || input == 160;
+		return (CHAR_TABLE[input] & CHAR_SPACE) != 0;
 	}
 
 	public static boolean isEnglishLetter(char input) {
-		return (input >= 'a' && input <= 'z')
-				|| (input >= 'A' && input <= 'Z');
+		return (CHAR_TABLE[input] & CHAR_ENGLISH) != 0;
 	}
 
 	public static boolean isArabicNumber(char input) {
-		return input >= '0' && input <= '9';
+		return (CHAR_TABLE[input] & CHAR_ARABIC) != 0;
 	}
 
 	public static boolean isCJKCharacter(char input) {
+		return (CHAR_TABLE[input] & CHAR_CJK) != 0;
+	}
+
+	private static boolean isCJKBlock(char input) {
 		Character.UnicodeBlock ub = Character.UnicodeBlock.of(input);
 		if (ub == Character.UnicodeBlock.CJK_UNIFIED_IDEOGRAPHS
 				|| ub == Character.UnicodeBlock.CJK_COMPATIBILITY_IDEOGRAPHS
@@ -44,7 +157,7 @@ public class CharacterHelper {
 		}
 		//其他的CJK标点符号，可以不做处理
 		//|| ub == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION
-		//|| ub == Character.UnicodeBlock.GENERAL_PUNCTUATION  
+		//|| ub == Character.UnicodeBlock.GENERAL_PUNCTUATION
 	}
 
 
@@ -52,6 +165,10 @@ public class CharacterHelper {
 	 * 进行字符规格化（全角转半角，大写转小写处理）
 	 */
 	public static char regularize(char input) {
+		return (char) CHAR_TABLE[input];
+	}
+
+	private static char regularizeChar(char input) {
 		if (input == 12288) {
 			input = (char) 32;
 
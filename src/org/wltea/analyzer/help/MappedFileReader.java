@@ -0,0 +1,117 @@
+package org.wltea.analyzer.help;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * 内存映射读取文本文件的Reader
+ * 文件按窗口逐段映射，用CharsetDecoder直接解码到调用方的数组，不经过InputStream和中间缓冲，
+ * 也不把整个文件读入堆中，可以读取超过2G的文件。
+ * 每次读取尽量填满调用方的数组，只有到文件末尾才会少读；非法的字节序列替换为替换字符，同InputStreamReader
+ * <p/>
+ * 映射的内存在不再引用后由GC释放；不是线程安全的
+ */
+public final class MappedFileReader extends Reader {
+
+	//默认的映射窗口大小
+	private static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+	private final RandomAccessFile file;
+
+	private final FileChannel channel;
+
+	//文件大小
+	private final long size;
+
+	//映射窗口大小
+	private final int windowSize;
+
+	private final CharsetDecoder decoder;
+
+	//当前映射的窗口
+	private ByteBuffer window;
+
+	//当前窗口在文件中的起始位置
+	private long windowBegin;
+
+	//解码器是否已经输出全部字符
+	private boolean flushed;
+
+	public MappedFileReader(File file, Charset charset) throws IOException {
+		this(file, charset, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * @param file
+	 * @param charset
+	 * @param windowSize 映射窗口大小，不小于16字节
+	 * @throws IOException
+	 */
+	public MappedFileReader(File file, Charset charset, int windowSize) throws IOException {
+		if (windowSize < 16) {
+			throw new IllegalArgumentException("windowSize:" + windowSize);
+		}
+		this.file = new RandomAccessFile(file, "r");
+		this.channel = this.file.getChannel();
+		this.size = channel.size();
+		this.windowSize = windowSize;
+		this.decoder = charset.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		map(0);
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		if (window == null) {
+			throw new IOException("Stream closed");
+		}
+		if (len == 0) {
+			return 0;
+		}
+		CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+		while (!flushed) {
+			boolean endOfInput = windowBegin + window.limit() == size;
+			CoderResult result = decoder.decode(window, out, endOfInput);
+			if (result.isOverflow()) {
+				break;
+			}
+			if (result.isError()) {
+				result.throwException();
+			}
+			if (!endOfInput) {
+				//窗口末尾不完整的字节序列留到下一个窗口
+				map(windowBegin + window.position());
+			} else if (decoder.flush(out).isOverflow()) {
+				break;
+			} else {
+				flushed = true;
+			}
+		}
+		int count = out.position() - off;
+		return count == 0 && flushed ? -1 : count;
+	}
+
+	/**
+	 * 从文件的begin处映射下一个窗口
+	 */
+	private void map(long begin) throws IOException {
+		windowBegin = begin;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, begin, Math.min(windowSize, size - begin));
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		file.close();
+	}
+}
@@ -5,7 +5,11 @@ import java.util.regex.Pattern;
 
 /**
  * Created by masonqwli on 16/2/19.
+ *
+ * @deprecated 分词器已不再使用本类，URL和Email由org.wltea.analyzer.seg.UrlEmailMatcher在扫描时逐字符识别，
+ * 本类的正则表达式不再与分词结果同步维护
  */
+@Deprecated
 public class PatternUtil {
 	private static String URL_REGEX = "^(https?|ftp|file)://[-a-zA-Z0-9+&@#/%?=~_|!:,.;]*[-a-zA-Z0-9+&@#/%=~_|]";
 	private static String EMAIL_REGEX = "^(?:.*?<)?[-A-Za-z\\d.+_=]+@[-A-Za-z\\d._]+\\.[-A-Za-z\\d._]+>?$";
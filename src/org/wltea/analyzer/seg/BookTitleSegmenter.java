@@ -2,6 +2,7 @@ package org.wltea.analyzer.seg;
 
 import org.wltea.analyzer.Context;
 import org.wltea.analyzer.Lexeme;
+import org.wltea.analyzer.help.CharacterHelper;
 
 /**
  * <pre>
@@ -14,7 +15,7 @@ import org.wltea.analyzer.Lexeme;
  *     简单处理，暂时不处理xxx《xxx《yyy》zzz》这种情况，会被匹配成《xxx《yyy》
  * </pre>
  */
-public class BookTitleSegmenter implements ISegmenter {
+public class BookTitleSegmenter implements ICharTypeSegmenter {
 
 	private int start = -1;
 	private boolean foundStart = false;
@@ -26,8 +27,7 @@ public class BookTitleSegmenter implements ISegmenter {
 		char c = segmentBuff[current];
 		if (foundStart) {
 			if (c == '》') {
-				Lexeme newLexeme = new Lexeme(context.getBuffOffset(), start, current - start, Lexeme.Type.TYPE_BOOK_TITLE);
-				context.addLexeme(newLexeme);
+				context.addLexeme(start, current - start, Lexeme.Type.TYPE_BOOK_TITLE);
 				reset();
 			} else {
 				foundLength++;
@@ -48,6 +48,11 @@ public class BookTitleSegmenter implements ISegmenter {
 		}
 	}
 
+	@Override
+	public int acceptedCharTypes() {
+		return CharacterHelper.CHAR_BOOK_TITLE;
+	}
+
 	@Override
 	public void reset() {
 		foundStart = false;
@@ -2,12 +2,12 @@ package org.wltea.analyzer.seg;
 
 import org.wltea.analyzer.Context;
 import org.wltea.analyzer.Lexeme;
+import org.wltea.analyzer.dic.AhoCorasickAutomaton;
 import org.wltea.analyzer.dic.Dictionary;
 import org.wltea.analyzer.dic.Hit;
 import org.wltea.analyzer.help.CharacterHelper;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * 中文（CJK）词元处理子分词器，涵盖一下范围
@@ -20,34 +20,82 @@ import java.util.List;
  * @author 林良益
  * @version 3.2
  */
-public class CJKSegmenter implements ISegmenter {
+public class CJKSegmenter implements ICharTypeSegmenter {
+	/*
+	 * Hit对列的初始容量，前缀词个数不超过词典中最长的词长，超过时扩容
+	 */
+	private static final int INITIAL_HIT_CAPACITY = 16;
 	/*
 	 * 已完成处理的位置
 	 */
 	private int doneIndex;
 	/*
-	 * Hit对列，记录匹配中的Hit对象
+	 * Hit对列，[0, hitCount)为匹配中的前缀词，按开始位置由小到大排列；
+	 * 之后的位置存放已移出对列的Hit对象，供后续匹配复用
+	 */
+	private Hit[] hits;
+	/*
+	 * 匹配中的前缀词个数
+	 */
+	private int hitCount;
+	/*
+	 * 姓氏、介词、后缀词典匹配复用的Hit
+	 */
+	private final Hit dictHit = new Hit();
+	/*
+	 * 后缀词典匹配结果，只需要最短的后缀
+	 */
+	private final int[] suffixEnds = new int[1];
+	/*
+	 * 是否使用Aho-Corasick自动机匹配
 	 */
-	private List<Hit> hitList; // 记录前缀词
+	private final boolean useAutomaton;
+	/*
+	 * 主词典自动机，为null时使用Hit对列匹配
+	 */
+	private AhoCorasickAutomaton automaton;
+	/*
+	 * 自动机当前状态
+	 */
+	private int state;
 
 	public CJKSegmenter() {
+		this(false);
+	}
+
+	/**
+	 * @param useAutomaton 为true时使用Aho-Corasick自动机匹配，输出与逐个前缀匹配一致
+	 */
+	public CJKSegmenter(boolean useAutomaton) {
 		doneIndex = -1;
-		hitList = new LinkedList<>();
+		hits = new Hit[INITIAL_HIT_CAPACITY];
+		this.useAutomaton = useAutomaton;
+		state = AhoCorasickAutomaton.ROOT;
 	}
 
 	/* (non-Javadoc)
 	 * @see org.wltea.org.wltea.analyzer.seg.ISegmenter#nextLexeme(org.wltea.org.wltea.analyzer.Context)
 	 */
 	public void nextLexeme(char[] segmentBuffer, Context context) {
+		if (useAutomaton && state == AhoCorasickAutomaton.ROOT && hitCount == 0) {
+			// 没有未完成的前缀时才取自动机，词典可能已重新加载或增删了词条；
+			// 主词典修改后自动机在后台重建，期间为null，改用Hit对列匹配
+			automaton = context.getDictionary().getMainAutomaton();
+		}
+		if (automaton != null) {
+			nextLexemeByAutomaton(segmentBuffer, context);
+			return;
+		}
 		int cursorPosition = context.getCursor();
 		char inputChar = segmentBuffer[cursorPosition];
+		skipNonCJK(segmentBuffer, cursorPosition);
 
 		if (CharacterHelper.isCJKCharacter(inputChar)) { // 是（CJK）字符，则进行处理
-			if (hitList.size() > 0) {
-				// 处理词段队列
-				Hit[] tmpArray = hitList.toArray(new Hit[hitList.size()]);
-				for (Hit hit : tmpArray) {
-					hit = Dictionary.matchWithHit(segmentBuffer, cursorPosition, hit);
+			if (hitCount > 0) {
+				// 处理词段队列，仍是前缀的Hit按原顺序前移，其余留在对列之后复用
+				int prefixCount = 0;
+				for (int i = 0, count = hitCount; i < count; i++) {
+					Hit hit = Dictionary.matchWithHit(segmentBuffer, cursorPosition, hits[i]);
 
 					if (hit.isMatch()) { // 匹配成词
 						// 判断是否有不可识别的词段
@@ -56,34 +104,27 @@ public class CJKSegmenter implements ISegmenter {
 							processUnknown(segmentBuffer, context, doneIndex + 1, hit.getBegin() - 1);
 						}
 						// 输出当前的词
-						Lexeme newLexeme = new Lexeme(context.getBuffOffset(), hit.getBegin(),
-								cursorPosition - hit.getBegin() + 1, Lexeme.Type.TYPE_CJK_NORMAL);
-						context.addLexeme(newLexeme);
+						context.addLexeme(hit.getBegin(), cursorPosition - hit.getBegin() + 1, Lexeme.Type.TYPE_CJK_NORMAL);
 						// 更新goneIndex，标识已处理
 						if (doneIndex < cursorPosition) {
 							doneIndex = cursorPosition;
 						}
-
-						if (hit.isPrefix()) {
-							// 同时也是前缀，留在list中，等待下次匹配到更长的词
-						} else {
-							// 后面不再可能有匹配了, 移出当前的hit
-							hitList.remove(hit);
-						}
-
-					} else if (hit.isPrefix()) { // 前缀，未匹配成词
-
-					} else if (hit.isUnMatch()) { // 不匹配
-						// 移出当前的hit
-						hitList.remove(hit);
 					}
+					if (hit.isPrefix()) {
+						// 是前缀（包括同时匹配成词的），留在对列中，等待下次匹配到更长的词
+						hits[i] = hits[prefixCount];
+						hits[prefixCount++] = hit;
+					}
+					// 否则后面不再可能有匹配了, 移出当前的hit
 				}
+				hitCount = prefixCount;
 			}
 			processNewHit(context, segmentBuffer, cursorPosition);
 			processSurName(context, segmentBuffer, cursorPosition);
 		} else { // 输入的不是中文(CJK)字符
-			if (hitList.size() > 0 && doneIndex < cursorPosition - 1) {
-				for (Hit hit : hitList) {
+			if (hitCount > 0 && doneIndex < cursorPosition - 1) {
+				for (int i = 0; i < hitCount; i++) {
+					Hit hit = hits[i];
 					// 判断是否有不可识别的词段
 					if (doneIndex < hit.getEnd()) {
 						// 输出并处理从doneIndex+1 到 seg.end之间的未知词段
@@ -92,7 +133,7 @@ public class CJKSegmenter implements ISegmenter {
 				}
 			}
 			// 清空词段队列
-			hitList.clear();
+			clearHitList();
 			// 更新doneIndex，标识已处理
 			if (doneIndex < cursorPosition) {
 				doneIndex = cursorPosition;
@@ -101,9 +142,10 @@ public class CJKSegmenter implements ISegmenter {
 
 		// 缓冲区结束临界处理
 		if (cursorPosition == context.getAvailable() - 1) { // 读取缓冲区结束的最后一个字符
-			if (hitList.size() > 0 // 队列中还有未处理词段
+			if (hitCount > 0 // 队列中还有未处理词段
 					&& doneIndex < context.getCursor()) { // 最后一个字符还未被输出过
-				for (Hit hit : hitList) {
+				for (int i = 0; i < hitCount; i++) {
+					Hit hit = hits[i];
 					// 判断是否有不可识别的词段
 					if (doneIndex < hit.getEnd()) {
 						// 输出并处理从doneIndex+1 到 seg.end之间的未知词段
@@ -112,20 +154,98 @@ public class CJKSegmenter implements ISegmenter {
 				}
 			}
 			// 清空词段队列
-			hitList.clear();
+			clearHitList();
 		}
 
 		// 判断是否锁定缓冲区
-		if (hitList.size() == 0) {
+		if (hitCount == 0) {
+			context.unlockBuffer(this);
+		} else {
+			context.lockBuffer(this);
+		}
+	}
+
+	/**
+	 * 使用Aho-Corasick自动机匹配
+	 * 与Hit对列方式逐一对应：以当前字符结尾的词由长到短输出（即Hit对列中起始位置由小到大），
+	 * 自动机状态上未完成的前缀个数即Hit对列的长度
+	 */
+	private void nextLexemeByAutomaton(char[] segmentBuffer, Context context) {
+		int cursorPosition = context.getCursor();
+		char inputChar = segmentBuffer[cursorPosition];
+
+		skipNonCJK(segmentBuffer, cursorPosition);
+
+		if (CharacterHelper.isCJKCharacter(inputChar)) { // 是（CJK）字符，则进行处理
+			state = automaton.next(state, inputChar);
+			int output = automaton.firstOutput(state);
+			if (output != AhoCorasickAutomaton.NONE) { // 匹配成词
+				// 判断最长的词之前是否有不可识别的词段
+				int begin = cursorPosition - automaton.depth(output) + 1;
+				if (begin > doneIndex + 1) {
+					processUnknown(segmentBuffer, context, doneIndex + 1, begin - 1);
+				}
+				// 由长到短输出以当前字符结尾的词
+				do {
+					int length = automaton.depth(output);
+					context.addLexeme(cursorPosition - length + 1, length, Lexeme.Type.TYPE_CJK_NORMAL);
+					output = automaton.nextOutput(output);
+				} while (output != AhoCorasickAutomaton.NONE);
+				// 更新doneIndex，标识已处理
+				doneIndex = cursorPosition;
+
+			} else if (!automaton.startsWith(inputChar) && doneIndex < cursorPosition) {
+				// 当前的input不是词，也不是词前缀，输出从doneIndex到当前字符（含当前字符）之间的未知词
+				processUnknown(segmentBuffer, context, doneIndex + 1, cursorPosition);
+				doneIndex = cursorPosition;
+			}
+			processSurName(context, segmentBuffer, cursorPosition);
+		} else { // 输入的不是中文(CJK)字符
+			if (doneIndex < cursorPosition - 1) {
+				// 每个未完成的前缀处理一次未知词段
+				for (int i = automaton.pendingCount(state); i > 0; i--) {
+					processUnknown(segmentBuffer, context, doneIndex + 1, cursorPosition - 1);
+				}
+			}
+			state = AhoCorasickAutomaton.ROOT;
+			// 更新doneIndex，标识已处理
+			if (doneIndex < cursorPosition) {
+				doneIndex = cursorPosition;
+			}
+		}
+
+		// 缓冲区结束临界处理
+		if (cursorPosition == context.getAvailable() - 1) {
+			if (doneIndex < cursorPosition) { // 最后一个字符还未被输出过
+				for (int i = automaton.pendingCount(state); i > 0; i--) {
+					processUnknown(segmentBuffer, context, doneIndex + 1, cursorPosition);
+				}
+			}
+			state = AhoCorasickAutomaton.ROOT;
+		}
+
+		// 没有未完成的前缀时，之前的字符不会再参与匹配，回到初始状态
+		if (automaton.pendingCount(state) == 0) {
+			state = AhoCorasickAutomaton.ROOT;
 			context.unlockBuffer(this);
 		} else {
 			context.lockBuffer(this);
 		}
 	}
 
+	/**
+	 * 未锁定缓冲区时，非CJK字符不会交给本分词器处理（见acceptedCharTypes）
+	 * 紧挨着的前一个字符不是CJK字符时，补上处理它时对doneIndex的更新
+	 */
+	private void skipNonCJK(char[] segmentBuffer, int cursorPosition) {
+		if (doneIndex < cursorPosition - 1 && !CharacterHelper.isCJKCharacter(segmentBuffer[cursorPosition - 1])) {
+			doneIndex = cursorPosition - 1;
+		}
+	}
+
 	// 处理以input为开始的一个新hit
 	private void processNewHit(Context context, char[] segmentBuffer, int cursorPosition) {
-		Hit hit = Dictionary.matchInMainDict(segmentBuffer, cursorPosition, 1);
+		Hit hit = context.getDictionary().getMainDict().matchInto(segmentBuffer, cursorPosition, 1, obtainHit());
 		if (hit.isMatch()) { // 匹配成词
 			// 判断是否有不可识别的词段
 			if (cursorPosition > doneIndex + 1) {
@@ -133,19 +253,18 @@ public class CJKSegmenter implements ISegmenter {
 				processUnknown(segmentBuffer, context, doneIndex + 1, cursorPosition - 1);
 			}
 			// 输出当前的词
-			Lexeme newLexeme = new Lexeme(context.getBuffOffset(), cursorPosition, 1, Lexeme.Type.TYPE_CJK_NORMAL);
-			context.addLexeme(newLexeme);
+			context.addLexeme(cursorPosition, 1, Lexeme.Type.TYPE_CJK_NORMAL);
 			// 更新doneIndex，标识已处理
 			if (doneIndex < cursorPosition) {
 				doneIndex = cursorPosition;
 			}
 
 			if (hit.isPrefix()) { // 同时也是前缀
-				hitList.add(hit);
+				hitCount++;
 			}
 
 		} else if (hit.isPrefix()) { // 前缀，未匹配成词
-			hitList.add(hit);
+			hitCount++;
 
 		} else if (hit.isUnMatch()) { // 不匹配，当前的input不是词，也不是词前缀，将其视为分割性的字符
 			if (doneIndex < cursorPosition) {
@@ -161,18 +280,16 @@ public class CJKSegmenter implements ISegmenter {
 
 	// 处理姓氏
 	private void processSurName(Context context, char[] segmentBuffer, int cursorPosition) {
-		Hit hit = Dictionary.matchInSurnameDict(segmentBuffer, cursorPosition, 1);
+		Hit hit = context.getDictionary().getSurnameDict().matchInto(segmentBuffer, cursorPosition, 1, dictHit);
 		if (hit.isMatch()) {
 			// 输出姓氏
-			Lexeme newLexeme = new Lexeme(context.getBuffOffset(), cursorPosition, 1, Lexeme.Type.TYPE_CJK_SUR_NAME);
-			context.addLexeme(newLexeme);
+			context.addLexeme(cursorPosition, 1, Lexeme.Type.TYPE_CJK_SUR_NAME);
 		} else if (hit.isPrefix()) {
 			// 处理多字姓氏。目前只支持双字
-			if (cursorPosition + 1 < segmentBuffer.length) {
-				Hit nameHit = hit.getMatchedDictSegment().match(segmentBuffer, cursorPosition + 1, 1);
+			if (cursorPosition + 1 < context.getAvailable()) {
+				Hit nameHit = Dictionary.matchWithHit(segmentBuffer, cursorPosition + 1, hit);
 				if (nameHit.isMatch()) {
-					Lexeme newLexeme = new Lexeme(context.getBuffOffset(), cursorPosition, 2, Lexeme.Type.TYPE_CJK_SUR_NAME);
-					context.addLexeme(newLexeme);
+					context.addLexeme(cursorPosition, 2, Lexeme.Type.TYPE_CJK_SUR_NAME);
 				}
 			}
 		}
@@ -184,35 +301,49 @@ public class CJKSegmenter implements ISegmenter {
 	 * uEnd : unknown区域的结束位置
 	 */
 	private void processUnknown(char[] segmentBuff, Context context, int uBegin, int uEnd) {
-		Lexeme newLexeme;
 		// 以单字输出未知词段
 		for (int i = uBegin; i <= uEnd; i++) {
-			newLexeme = new Lexeme(context.getBuffOffset(), i, 1, Lexeme.Type.TYPE_CJK_UNKNOWN);
-			context.addLexeme(newLexeme);
+			context.addLexeme(i, 1, Lexeme.Type.TYPE_CJK_UNKNOWN);
 		}
 
-		Hit hit = Dictionary.matchInPrepDict(segmentBuff, uEnd, 1);
+		Hit hit = context.getDictionary().getPrepDict().matchInto(segmentBuff, uEnd, 1, dictHit);
 		if (hit.isUnMatch()) { // 不是副词或介词
-			int length = 1;
-			while (uEnd < context.getAvailable() - length) { // 处理后缀词
-				hit = Dictionary.matchInSuffixDict(segmentBuff, uEnd + 1, length);
-				if (hit.isMatch()) {
-					// 输出后缀
-					newLexeme = new Lexeme(context.getBuffOffset(), uEnd + 1, length, Lexeme.Type.TYPE_CJK_SF);
-					context.addLexeme(newLexeme);
-					break;
-				}
-				if (hit.isUnMatch()) {
-					break;
-				}
-				length++;
+			// 处理后缀词，沿后缀词典走一遍，取最短的后缀
+			int suffixBegin = uEnd + 1;
+			if (context.getDictionary().getSuffixDict().matchAll(segmentBuff, suffixBegin,
+					context.getAvailable() - suffixBegin, suffixEnds) > 0) {
+				// 输出后缀
+				context.addLexeme(suffixBegin, suffixEnds[0] - suffixBegin + 1, Lexeme.Type.TYPE_CJK_SF);
 			}
 		}
 	}
 
+	// 取出Hit对列之后的一个Hit，没有时新建；加入对列只需将hitCount加1
+	private Hit obtainHit() {
+		if (hitCount == hits.length) {
+			hits = Arrays.copyOf(hits, hitCount * 2);
+		}
+		Hit hit = hits[hitCount];
+		if (hit == null) {
+			hit = new Hit();
+			hits[hitCount] = hit;
+		}
+		return hit;
+	}
+
+	// 清空Hit对列，Hit留在数组中复用
+	private void clearHitList() {
+		hitCount = 0;
+	}
+
+	public int acceptedCharTypes() {
+		return CharacterHelper.CHAR_CJK;
+	}
+
 	public void reset() {
 		// 重置已处理标识
 		doneIndex = -1;
-		hitList.clear();
+		clearHitList();
+		state = AhoCorasickAutomaton.ROOT;
 	}
 }
@@ -0,0 +1,14 @@
+package org.wltea.analyzer.seg;
+
+/**
+ * 声明所处理字符类别的子分词器
+ * 子分词器没有锁定缓冲区（处于初始状态）时，不属于这些类别的字符不会交给它处理，
+ * 因此对这样的字符，初始状态下的nextLexeme必须不产生任何效果
+ */
+public interface ICharTypeSegmenter extends ISegmenter {
+
+	/**
+	 * @return 处理的字符类别，CharacterHelper中CHAR_*类别标志的组合
+	 */
+	int acceptedCharTypes();
+}
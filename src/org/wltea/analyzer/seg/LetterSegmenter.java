@@ -3,7 +3,6 @@ package org.wltea.analyzer.seg;
 import org.wltea.analyzer.Context;
 import org.wltea.analyzer.Lexeme;
 import org.wltea.analyzer.help.CharacterHelper;
-import org.wltea.analyzer.help.PatternUtil;
 
 /**
  * 负责处理字母的子分词器，涵盖一下范围
@@ -12,10 +11,10 @@ import org.wltea.analyzer.help.PatternUtil;
  *
  * @author 林良益
  */
-public class LetterSegmenter implements ISegmenter {
+public class LetterSegmenter implements ICharTypeSegmenter {
 
-	//链接符号
-	public static final char[] CONNECTOR = new char[]{':', '+', '-', '_', '.', '@', '&', '/', '\\'};
+	//链接符号，字符分类见CharacterHelper.CONNECTOR_CHARS
+	public static final char[] CONNECTOR = CharacterHelper.CONNECTOR_CHARS.toCharArray();
 	/*
 	 * 词元的开始位置，
 	 * 同时作为子分词器状态标识
@@ -38,6 +37,11 @@ public class LetterSegmenter implements ISegmenter {
 	 */
 	private int letterEnd;
 
+	/*
+	 * 识别数字字母混合词元是否是URL或Email
+	 */
+	private final UrlEmailMatcher urlEmailMatcher = new UrlEmailMatcher();
+
 	public LetterSegmenter() {
 		start = -1;
 		end = -1;
@@ -78,11 +82,14 @@ public class LetterSegmenter implements ISegmenter {
 				//记录起始指针的位置,标明分词器进入处理状态
 				start = context.getCursor();
 				end = start;
+				urlEmailMatcher.reset();
+				urlEmailMatcher.next(input);
 			}
 		} else {//当前的分词器正在处理字符
 			if (isAcceptedChar(input)) {
 				// 不在忽略尾部的链接字符
 				end = context.getCursor();
+				urlEmailMatcher.next(input);
 			} else {
 				// 生成已切分的词元
 				addLexemeMixed(context);
@@ -108,18 +115,13 @@ public class LetterSegmenter implements ISegmenter {
 	}
 
 	private void addLexemeMixed(Context context) {
-		String text = context.text(start, end - start + 1);
-		boolean isUrl = PatternUtil.isUrl(text);
-		boolean isEmail = PatternUtil.isEmail(text);
-		Lexeme newLexeme;
-		if (isUrl) {
-			newLexeme = new Lexeme(context.getBuffOffset(), start, end - start + 1, Lexeme.Type.TYPE_URL);
-		} else if (isEmail) {
-			newLexeme = new Lexeme(context.getBuffOffset(), start, end - start + 1, Lexeme.Type.TYPE_EMAIL);
+		if (urlEmailMatcher.isUrl()) {
+			context.addLexeme(start, end - start + 1, Lexeme.Type.TYPE_URL);
+		} else if (urlEmailMatcher.isEmail()) {
+			context.addLexeme(start, end - start + 1, Lexeme.Type.TYPE_EMAIL);
 		} else {
-			newLexeme = new Lexeme(context.getBuffOffset(), start, end - start + 1, Lexeme.Type.TYPE_LETTER);
+			context.addLexeme(start, end - start + 1, Lexeme.Type.TYPE_LETTER);
 		}
-		context.addLexeme(newLexeme);
 	}
 
 	/**
@@ -138,8 +140,7 @@ public class LetterSegmenter implements ISegmenter {
 				letterEnd = context.getCursor();
 			} else {
 				// 生成已切分的词元
-				Lexeme newLexeme = new Lexeme(context.getBuffOffset(), letterStart, letterEnd - letterStart + 1, Lexeme.Type.TYPE_LETTER);
-				context.addLexeme(newLexeme);
+				context.addLexeme(letterStart, letterEnd - letterStart + 1, Lexeme.Type.TYPE_LETTER);
 				// 设置当前分词器状态为“待处理”
 				letterStart = -1;
 				letterEnd = -1;
@@ -150,8 +151,7 @@ public class LetterSegmenter implements ISegmenter {
 		if (context.getCursor() == context.getAvailable() - 1) {
 			if (letterStart != -1 && letterEnd != -1) {
 				//生成已切分的词元
-				Lexeme newLexeme = new Lexeme(context.getBuffOffset(), letterStart, letterEnd - letterStart + 1, Lexeme.Type.TYPE_LETTER);
-				context.addLexeme(newLexeme);
+				context.addLexeme(letterStart, letterEnd - letterStart + 1, Lexeme.Type.TYPE_LETTER);
 			}
 			//设置当前分词器状态为“待处理”
 			letterStart = -1;
@@ -162,29 +162,23 @@ public class LetterSegmenter implements ISegmenter {
 		return letterStart != -1 || letterEnd != -1;
 	}
 
-	private boolean isLetterConnector(char input) {
-		for (char c : CONNECTOR) {
-			if (c == input) {
-				return true;
-			}
-		}
-		return false;
-	}
-
 	/**
 	 * 判断char是否是可接受的起始字符
 	 */
 	private boolean isAcceptedCharStart(char input) {
-		return CharacterHelper.isEnglishLetter(input) || CharacterHelper.isArabicNumber(input);
+		return (CharacterHelper.charType(input) & (CharacterHelper.CHAR_ENGLISH | CharacterHelper.CHAR_ARABIC)) != 0;
 	}
 
 	/**
 	 * 判断char是否是可接受的字符
 	 */
 	private boolean isAcceptedChar(char input) {
-		return isLetterConnector(input)
-				|| CharacterHelper.isEnglishLetter(input)
-				|| CharacterHelper.isArabicNumber(input);
+		return (CharacterHelper.charType(input)
+				& (CharacterHelper.CHAR_CONNECTOR | CharacterHelper.CHAR_ENGLISH | CharacterHelper.CHAR_ARABIC)) != 0;
+	}
+
+	public int acceptedCharTypes() {
+		return CharacterHelper.CHAR_ENGLISH | CharacterHelper.CHAR_ARABIC;
 	}
 
 	public void reset() {
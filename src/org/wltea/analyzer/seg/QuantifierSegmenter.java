@@ -5,13 +5,9 @@ package org.wltea.analyzer.seg;
 
 import org.wltea.analyzer.Context;
 import org.wltea.analyzer.Lexeme;
-import org.wltea.analyzer.dic.Dictionary;
 import org.wltea.analyzer.dic.Hit;
 import org.wltea.analyzer.help.CharacterHelper;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * 数量词子分词器，涵盖一下范围
  * 1.阿拉伯数字，阿拉伯数字+中文量词
@@ -22,7 +18,7 @@ import java.util.Set;
  *
  * @author 林良益
  */
-public class QuantifierSegmenter implements ISegmenter {
+public class QuantifierSegmenter implements ICharTypeSegmenter {
 
 	public enum NumberType {
 		NC_ARABIC, // 阿拉伯数字0-9
@@ -34,70 +30,127 @@ public class QuantifierSegmenter implements ISegmenter {
 		NaN // 非数词字符
 	}
 
-	//阿拉伯数词链接符号
-	public static String Arabic_Num_Mid = ",./:Ee";//Amid
-	private static Set<Character> ArabicNumMidChars = new HashSet<>();
+	//数词字符的分类由CharacterHelper的字符表给出，以下同CharacterHelper中的定义
 
-	static {
-		char[] ca = Arabic_Num_Mid.toCharArray();
-		for (char nChar : ca) {
-			ArabicNumMidChars.add(nChar);
-		}
-	}
+	//阿拉伯数词链接符号
+	public static String Arabic_Num_Mid = CharacterHelper.NUM_MID_CHARS;//Amid
 
 	//序数词（数词前缀）
-	public static String Num_Pre = "第初";//Cpre
+	public static String Num_Pre = CharacterHelper.NUM_PRE_CHARS;//Cpre
 
 	//中文数词
-	public static String Chn_Num = "○一二两三四五六七八九十零壹贰叁肆伍陆柒捌玖拾百千万亿拾佰仟萬億兆卅廿";//Cnum
-	private static Set<Character> ChnNumberChars = new HashSet<>();
-
-	static {
-		char[] ca = Chn_Num.toCharArray();
-		for (char nChar : ca) {
-			ChnNumberChars.add(nChar);
-		}
-	}
+	public static String Chn_Num = CharacterHelper.CHN_NUM_CHARS;//Cnum
 
 	//中文数词连接符
-	public static String Chn_Num_Mid = "点";//Cmid
+	public static String Chn_Num_Mid = CharacterHelper.CHN_NUM_MID_CHARS;//Cmid
 
 	//约数词（数词结尾）
-	public static String Num_End = "几多余半";//Cend
-	private static Set<Character> NumEndChars = new HashSet<>();
+	public static String Num_End = CharacterHelper.NUM_END_CHARS;//Cend
 
-	static {
-		char[] ca = Num_End.toCharArray();
-		for (char nChar : ca) {
-			NumEndChars.add(nChar);
-		}
-	}
+	//数词字符类型的个数，也是数词状态的个数
+	private static final int TYPE_COUNT = NumberType.values().length;
 
-	//所有的可能数词
-	private static Set<Character> AllNumberChars = new HashSet<Character>(256);
+	private static final int NAN = NumberType.NaN.ordinal();
 
-	static {
-		char[] ca;
+	/*
+	 * 数词状态转换的动作，按位组合，依次执行
+	 */
+	private static final int ACTION_OUTPUT = 1; // 输出可能存在的数词
+	private static final int ACTION_RESET = 2; // 重置数词状态
+	private static final int ACTION_START = 4; // 记录起始位置
+	private static final int ACTION_END = 8; // 记录可能的结束位置
+	private static final int ACTION_BITS = 4;
 
-		for (char nChar = '0'; nChar <= '9'; nChar++) {
-			AllNumberChars.add(nChar);
-		}
+	/*
+	 * 数词状态转换表，下标为 当前状态 * TYPE_COUNT + 输入的字符类型，
+	 * 值为 新状态 << ACTION_BITS | 动作
+	 */
+	private static final byte[] TRANSITIONS = new byte[TYPE_COUNT * TYPE_COUNT];
 
-		AllNumberChars.addAll(ArabicNumMidChars);
+	//CharacterHelper类别标志中数词类别所在的最低位
+	private static final int INPUT_FLAG_SHIFT = 18;
 
-		ca = Num_Pre.toCharArray();
-		for (char nChar : ca) {
-			AllNumberChars.add(nChar);
+	/*
+	 * 字符类别到数词字符类型（NumberType的序号）的映射，
+	 * 下标为CharacterHelper.charType右移INPUT_FLAG_SHIFT位的低8位
+	 */
+	private static final byte[] INPUT_TYPES = new byte[256];
+
+	static {
+		for (int flags = 0; flags < INPUT_TYPES.length; flags++) {
+			int charType = flags << INPUT_FLAG_SHIFT;
+			NumberType type = NumberType.NaN;
+			if ((charType & CharacterHelper.CHAR_ARABIC) != 0) {
+				type = NumberType.NC_ARABIC;
+			} else if ((charType & CharacterHelper.CHAR_CHN_NUM) != 0) {
+				type = NumberType.NC_CHINESE;
+			} else if ((charType & CharacterHelper.CHAR_NUM_PRE) != 0) { // 序数词，第一，第二
+				type = NumberType.NC_ORDINAL;
+			} else if ((charType & CharacterHelper.CHAR_CHN_NUM_MID) != 0) {
+				type = NumberType.NC_CNM;
+			} else if ((charType & CharacterHelper.CHAR_NUM_END) != 0) {
+				type = NumberType.NC_NE;
+			} else if ((charType & CharacterHelper.CHAR_NUM_MID) != 0) {
+				type = NumberType.NC_ANM;
+			}
+			INPUT_TYPES[flags] = (byte) type.ordinal();
+		}
+
+		for (NumberType input : NumberType.values()) {
+			//NaN状态：开始新的数词
+			transit(NumberType.NaN, input, startTransition(input));
+			//其他状态下默认输出可能存在的数词，重置后进入初始态进行处理
+			for (NumberType status : NumberType.values()) {
+				if (status != NumberType.NaN) {
+					transit(status, input, ACTION_OUTPUT | ACTION_RESET | startTransition(input));
+				}
+			}
+			//中文数字前缀之后不是数字，重置时不输出
+			transit(NumberType.NC_ORDINAL, input, ACTION_RESET | startTransition(input));
 		}
 
-		AllNumberChars.addAll(ChnNumberChars);
+		//当前为阿拉伯数字
+		transit(NumberType.NC_ARABIC, NumberType.NC_ARABIC, NumberType.NC_ARABIC, ACTION_END);
+		transit(NumberType.NC_ARABIC, NumberType.NC_ANM, NumberType.NC_ANM, 0);
+		transit(NumberType.NC_ARABIC, NumberType.NC_CHINESE, NumberType.NC_CHINESE, ACTION_END);
+		transit(NumberType.NC_ARABIC, NumberType.NC_NE, NumberType.NC_NE, ACTION_END);
+		//当前为阿拉伯数字链接符
+		transit(NumberType.NC_ANM, NumberType.NC_ARABIC, NumberType.NC_ARABIC, ACTION_END);
+		//当前为中文数字前缀
+		transit(NumberType.NC_ORDINAL, NumberType.NC_CHINESE, NumberType.NC_CHINESE, ACTION_END);
+		transit(NumberType.NC_ORDINAL, NumberType.NC_ARABIC, NumberType.NC_ARABIC, ACTION_END);
+		//当前为中文数字
+		transit(NumberType.NC_CHINESE, NumberType.NC_CHINESE, NumberType.NC_CHINESE, ACTION_END);
+		transit(NumberType.NC_CHINESE, NumberType.NC_CNM, NumberType.NC_CNM, 0);
+		transit(NumberType.NC_CHINESE, NumberType.NC_NE, NumberType.NC_NE, ACTION_END);
+		//当前为中文数字连接符
+		transit(NumberType.NC_CNM, NumberType.NC_CHINESE, NumberType.NC_CHINESE, ACTION_END);
+		transit(NumberType.NC_CNM, NumberType.NC_NE, NumberType.NC_NE, ACTION_END);
+		//当前为中文数字结束符：全部输出后重新开始
+	}
 
-		ca = Chn_Num_Mid.toCharArray();
-		for (char nChar : ca) {
-			AllNumberChars.add(nChar);
+	/**
+	 * 初始态下输入字符后的转换
+	 */
+	private static int startTransition(NumberType input) {
+		switch (input) {
+			case NC_ORDINAL: //中文数词前缀
+				return NumberType.NC_ORDINAL.ordinal() << ACTION_BITS | ACTION_START;
+			case NC_CHINESE: //中文数词
+			case NC_NE: //中文数词后缀
+			case NC_ARABIC: //阿拉伯数字
+				return input.ordinal() << ACTION_BITS | ACTION_START | ACTION_END;
+			default: //对NC_ANM和NC_CNM不做处理
+				return NAN << ACTION_BITS;
 		}
+	}
 
-		AllNumberChars.addAll(NumEndChars);
+	private static void transit(NumberType status, NumberType input, int transition) {
+		TRANSITIONS[status.ordinal() * TYPE_COUNT + input.ordinal()] = (byte) transition;
+	}
+
+	private static void transit(NumberType status, NumberType input, NumberType next, int actions) {
+		transit(status, input, next.ordinal() << ACTION_BITS | actions);
 	}
 
 	/*
@@ -114,7 +167,7 @@ public class QuantifierSegmenter implements ISegmenter {
 	/*
 	 * 当前数词的状态 
 	 */
-	private NumberType nStatus; // 当前匹配到的最后一个字的类型
+	private int nStatus; // 当前匹配到的最后一个字的类型，NumberType的序号
 	/*
 	 * 捕获到一个数词
 	 */
@@ -128,12 +181,16 @@ public class QuantifierSegmenter implements ISegmenter {
 	 * 量词终止位置
 	 */
 	private int countEnd;
+	/*
+	 * 量词词典匹配复用的Hit
+	 */
+	private final Hit countHit = new Hit();
 
 
 	public QuantifierSegmenter() {
 		nStart = -1;
 		nEnd = -1;
-		nStatus = NumberType.NaN;
+		nStatus = NAN;
 		found = false;
 
 		countStart = -1;
@@ -165,7 +222,7 @@ public class QuantifierSegmenter implements ISegmenter {
 		//判断是否锁定缓冲区
 		if (this.nStart == -1
 				&& this.nEnd == -1
-				&& NumberType.NaN == this.nStatus
+				&& NAN == this.nStatus
 				&& this.countStart == -1
 				&& this.countEnd == -1) {
 			//对缓冲区解锁
@@ -179,246 +236,45 @@ public class QuantifierSegmenter implements ISegmenter {
 	 * 数词处理
 	 */
 	private void processNumber(char[] segmentBuff, Context context) {
-		//数词字符识别
-		NumberType type = parseType(segmentBuff, context);
-
-		if (NumberType.NaN == nStatus) {
-			//当前的分词器尚未开始处理字符
-			onNaNStatus(type, context);
-		} else if (NumberType.NC_ARABIC == nStatus) {
-			//当前为阿拉伯数字
-			onARABICStatus(type, context);
-		} else if (NumberType.NC_ANM == nStatus) {
-			//当前为阿拉伯数字链接符
-			onANMStatus(type, context);
-		} else if (NumberType.NC_ORDINAL == nStatus) {
-			//当前为中文数字前缀
-			onNPStatus(type, context);
-		} else if (NumberType.NC_CHINESE == nStatus) {
-			//当前为中文数字
-			onCHINESEStatus(type, context);
-		} else if (NumberType.NC_CNM == nStatus) {
-			//当前为中文数字连接符
-			onCNMStatus(type, context);
-		} else if (NumberType.NC_NE == nStatus) {
-			//当前为中文数字结束符
-			onCNEStatus(type, context);
+		//数词字符识别，按状态转换表转换状态
+		int transition = TRANSITIONS[nStatus * TYPE_COUNT + parseType(segmentBuff, context)];
+		if ((transition & ACTION_OUTPUT) != 0) {
+			//输出可能存在的数词
+			outputNumLexeme(context);
 		}
-
-		//读到缓冲区最后一个字符，还有尚未输出的数词
-		if (context.getCursor() == context.getAvailable() - 1) {
-			if (nStart != -1 && nEnd != -1) {
-				//输出数词
-				outputNumLexeme(context);
-			}
+		if ((transition & ACTION_RESET) != 0) {
 			//重置数词状态
 			nReset();
 		}
-	}
-
-	/**
-	 * 当前为NaN状态时，状态机的处理(状态转换)
-	 */
-	private void onNaNStatus(NumberType inputStatus, Context context) {
-		if (NumberType.NaN == inputStatus) {
-			return;
-		}
-		if (NumberType.NC_ORDINAL == inputStatus) {//中文数词前缀
+		if ((transition & ACTION_START) != 0) {
 			//记录起始位置
 			nStart = context.getCursor();
-			//记录当前的字符状态
-			nStatus = inputStatus;
-		} else if (NumberType.NC_CHINESE == inputStatus) {//中文数词
-			//记录起始位置
-			nStart = context.getCursor();
-			//记录当前的字符状态
-			nStatus = inputStatus;
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-
-		} else if (NumberType.NC_NE == inputStatus) {//中文数词后缀
-			//记录起始位置
-			nStart = context.getCursor();
-			//记录当前的字符状态
-			nStatus = inputStatus;
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-		} else if (NumberType.NC_ARABIC == inputStatus) {//阿拉伯数字
-			//记录起始位置
-			nStart = context.getCursor();
-			//记录当前的字符状态
-			nStatus = inputStatus;
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-		} else {
-			//对NC_ANM ，NC_ANE和NC_CNM 不做处理
-		}
-	}
-
-	/**
-	 * 当前为ARABIC状态时，状态机的处理(状态转换)
-	 */
-	private void onARABICStatus(NumberType inputStatus, Context context) {
-		if (NumberType.NC_ARABIC == inputStatus) {//阿拉伯数字
-			//保持状态不变
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-
-		} else if (NumberType.NC_ANM == inputStatus) {//阿拉伯数字连接符
-			//记录当前的字符状态
-			nStatus = inputStatus;
-		} else if (NumberType.NC_CHINESE == inputStatus) {//中文数字
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-			//记录当前的字符状态
-			nStatus = inputStatus;
-		} else if (NumberType.NC_NE == inputStatus) {//约数词
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-			//记录当前的字符状态
-			nStatus = inputStatus;
-		} else {
-			//输出数词
-			outputNumLexeme(context);
-			//重置数词状态
-			nReset();
-			//进入初始态进行处理
-			onNaNStatus(inputStatus, context);
-		}
-	}
-
-	/**
-	 * 当前为ANM状态时，状态机的处理(状态转换)
-	 */
-	private void onANMStatus(NumberType inputStatus, Context context) {
-		if (NumberType.NC_ARABIC == inputStatus) {//阿拉伯数字
-			//记录当前的字符状态
-			nStatus = inputStatus;
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-		} else {
-			//输出可能存在的数词
-			outputNumLexeme(context);
-			//重置数词状态
-			nReset();
-			//进入初始态进行处理
-			onNaNStatus(inputStatus, context);
 		}
-	}
-
-	/**
-	 * 当前为NP状态时，状态机的处理(状态转换)
-	 */
-	private void onNPStatus(NumberType inputStatus, Context context) {
-		if (NumberType.NC_CHINESE == inputStatus) {//中文数字
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-			//记录当前的字符状态
-			nStatus = inputStatus;
-		} else if (NumberType.NC_ARABIC == inputStatus) {//阿拉伯数字
+		if ((transition & ACTION_END) != 0) {
 			//记录可能的结束位置
 			nEnd = context.getCursor();
-			//记录当前的字符状态
-			nStatus = inputStatus;
-		} else {
-			//重置数词状态
-			nReset();
-			//进入初始态进行处理
-			onNaNStatus(inputStatus, context);
 		}
-	}
+		//记录当前的字符状态
+		nStatus = transition >>> ACTION_BITS;
 
-	/**
-	 * 当前为CHINESE状态时，状态机的处理(状态转换)
-	 */
-	private void onCHINESEStatus(NumberType inputStatus, Context context) {
-		if (NumberType.NC_CHINESE == inputStatus) {//中文数字
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-		} else if (NumberType.NC_CNM == inputStatus) {//中文数字链接符
-			//记录当前的字符状态
-			nStatus = inputStatus;
-		} else if (NumberType.NC_NE == inputStatus) {//中文数字结束符
-			//记录当前的字符状态
-			nStatus = inputStatus;
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-		} else {//其他输入
-			//输出可能存在的数词
-			outputNumLexeme(context);
-			//重置数词状态
-			nReset();
-			//进入初始态进行处理
-			onNaNStatus(inputStatus, context);
-		}
-	}
-
-	/**
-	 * 当前为CNM状态时，状态机的处理(状态转换)
-	 */
-	private void onCNMStatus(NumberType inputStatus, Context context) {
-		if (NumberType.NC_CHINESE == inputStatus) {//中文数字
-			//记录当前的字符状态
-			nStatus = inputStatus;
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-		} else if (NumberType.NC_NE == inputStatus) {//中文数字结束符
-			//记录当前的字符状态
-			nStatus = inputStatus;
-			//记录可能的结束位置
-			nEnd = context.getCursor();
-		} else {//其他输入
-			//输出可能存在的数词
-			outputNumLexeme(context);
+		//读到缓冲区最后一个字符，还有尚未输出的数词
+		if (context.getCursor() == context.getAvailable() - 1) {
+			if (nStart != -1 && nEnd != -1) {
+				//输出数词
+				outputNumLexeme(context);
+			}
 			//重置数词状态
 			nReset();
-			//进入初始态进行处理
-			onNaNStatus(inputStatus, context);
 		}
 	}
 
-	/**
-	 * 当前为CNE状态时，状态机的处理(状态转换)
-	 */
-	private void onCNEStatus(NumberType inputStatus, Context context) {
-		//输出可能存在的数词
-		outputNumLexeme(context);
-		//重置数词状态
-		nReset();
-		//进入初始态进行处理
-		onNaNStatus(inputStatus, context);
-
-	}
-
-	/**
-	 * 当前为ROME状态时，状态机的处理(状态转换)
-	 * @param inputStatus
-	 * @param context
-	 */
-//	private void onROMEStatus(int inputStatus ,  Context context){
-//		if(NC_ROME == inputStatus){//罗马数字
-//			//记录可能的结束位置
-//			nEnd = context.getCursor();
-//			
-//		}else{//其他输入
-//			//输出可能存在的数词
-//			outputNumLexeme(context);
-//			//重置数词状态
-//			nReset();
-//			//进入初始态进行处理
-//			onNaNStatus(inputStatus , context);
-//			
-//		}
-//	}
-
 	/**
 	 * 添加数词词元到结果集
 	 */
 	private void outputNumLexeme(Context context) {
 		if (nStart > -1 && nEnd > -1) {
 			//生成已切分的词元
-			Lexeme newLexeme = new Lexeme(context.getBuffOffset(), nStart, nEnd - nStart + 1, Lexeme.Type.TYPE_NUM);
-			context.addLexeme(newLexeme);
+			context.addLexeme(nStart, nEnd - nStart + 1, Lexeme.Type.TYPE_NUM);
 			found = true;
 		}
 	}
@@ -429,8 +285,7 @@ public class QuantifierSegmenter implements ISegmenter {
 	private void outputCountLexeme(Context context) {
 		if (countStart > -1 && countEnd > -1) {
 			//生成已切分的词元
-			Lexeme countLexeme = new Lexeme(context.getBuffOffset(), countStart, countEnd - countStart + 1, Lexeme.Type.TYPE_NUMCOUNT);
-			context.addLexeme(countLexeme);
+			context.addLexeme(countStart, countEnd - countStart + 1, Lexeme.Type.TYPE_NUMCOUNT);
 		}
 	}
 
@@ -440,34 +295,18 @@ public class QuantifierSegmenter implements ISegmenter {
 	private void nReset() {
 		this.nStart = -1;
 		this.nEnd = -1;
-		this.nStatus = NumberType.NaN;
+		this.nStatus = NAN;
 	}
 
 	/**
 	 * 识别数字字符类型
+	 *
+	 * @return NumberType的序号
 	 */
-	private NumberType parseType(char[] segmentBuff, Context context) {
-
+	private int parseType(char[] segmentBuff, Context context) {
 		//读取当前位置的char
 		char input = segmentBuff[context.getCursor()];
-		NumberType type = NumberType.NaN;
-		if (!AllNumberChars.contains(input)) {
-			return type;
-		}
-		if (CharacterHelper.isArabicNumber(input)) {
-			type = NumberType.NC_ARABIC;
-		} else if (ChnNumberChars.contains(input)) {
-			type = NumberType.NC_CHINESE;
-		} else if (Num_Pre.indexOf(input) >= 0) { // 序数词，第一，第二
-			type = NumberType.NC_ORDINAL;
-		} else if (Chn_Num_Mid.indexOf(input) >= 0) {
-			type = NumberType.NC_CNM;
-		} else if (NumEndChars.contains(input)) {
-			type = NumberType.NC_NE;
-		} else if (ArabicNumMidChars.contains(input)) {
-			type = NumberType.NC_ANM;
-		}
-		return type;
+		return INPUT_TYPES[CharacterHelper.charType(input) >>> INPUT_FLAG_SHIFT & 0xff];
 	}
 
 	/**
@@ -477,9 +316,9 @@ public class QuantifierSegmenter implements ISegmenter {
 		Hit hit;
 
 		if (countStart == -1) {
-			hit = Dictionary.matchInQuantifierDict(segmentBuff, context.getCursor(), 1);
+			hit = context.getDictionary().getQuantifierDict().matchInto(segmentBuff, context.getCursor(), 1, countHit);
 		} else {
-			hit = Dictionary.matchInQuantifierDict(segmentBuff, countStart, context.getCursor() - countStart + 1);
+			hit = context.getDictionary().getQuantifierDict().matchInto(segmentBuff, countStart, context.getCursor() - countStart + 1, countHit);
 		}
 
 		if (hit != null) {
@@ -517,10 +356,14 @@ public class QuantifierSegmenter implements ISegmenter {
 		}
 	}
 
+	public int acceptedCharTypes() {
+		return CharacterHelper.CHAR_NUMBER;
+	}
+
 	public void reset() {
 		nStart = -1;
 		nEnd = -1;
-		nStatus = NumberType.NaN;
+		nStatus = NAN;
 		found = false;
 
 		countStart = -1;
@@ -0,0 +1,152 @@
+package org.wltea.analyzer.seg;
+
+/**
+ * 逐字符识别URL和Email的状态机
+ * 由LetterSegmenter在扫描数字字母混合词元时逐个输入字符，词元结束时即可得到类别，
+ * 不生成词元的String，也不使用正则表达式。
+ * 对数字字母混合词元可能包含的字符（字母、数字和LetterSegmenter.CONNECTOR），结果与PatternUtil的正则表达式相同：
+ * <pre>
+ *     URL：以http://、https://、ftp://或file://开头，之后在第一个\之前至少有一个:和.以外的字符
+ *     Email：只有一个@，@之前为非空的字母、数字和-.+_，@之后为字母、数字和-._，并且除首尾之外还有一个.
+ * </pre>
+ */
+final class UrlEmailMatcher {
+
+	//URL状态：协议名部分，按已匹配的字符命名
+	private static final int URL_START = 0;
+	private static final int URL_H = 1;
+	private static final int URL_HT = 2;
+	private static final int URL_HTT = 3;
+	private static final int URL_HTTP = 4;
+	private static final int URL_HTTPS = 5;
+	private static final int URL_F = 6;
+	private static final int URL_FT = 7;
+	private static final int URL_FTP = 8;
+	private static final int URL_FI = 9;
+	private static final int URL_FIL = 10;
+	private static final int URL_FILE = 11;
+	//协议名之后的:
+	private static final int URL_COLON = 12;
+	//:之后的第一个/
+	private static final int URL_SLASH = 13;
+	//://之后，还没有可以作为结尾的字符
+	private static final int URL_PATH = 14;
+	//已经是URL
+	private static final int URL_MATCH = 15;
+	//不是URL
+	private static final int URL_NONE = 16;
+
+	//URL状态
+	private int urlState;
+
+	//Email @之前的字符是否都合法
+	private boolean localValid;
+
+	//Email @之前的字符数
+	private int localLength;
+
+	//@的个数
+	private int atCount;
+
+	//Email @之后的字符是否都合法
+	private boolean domainValid;
+
+	//Email @之后的字符数
+	private int domainLength;
+
+	//Email @之后第一个不在开头的.的位置，没有时为-1
+	private int domainDot;
+
+	UrlEmailMatcher() {
+		reset();
+	}
+
+	/**
+	 * 开始识别一个新的词元
+	 */
+	void reset() {
+		urlState = URL_START;
+		localValid = true;
+		localLength = 0;
+		atCount = 0;
+		domainValid = true;
+		domainLength = 0;
+		domainDot = -1;
+	}
+
+	/**
+	 * 输入词元的下一个字符
+	 */
+	void next(char c) {
+		urlState = nextUrlState(urlState, c);
+		if (c == '@') {
+			atCount++;
+		} else if (atCount == 0) {
+			if (!isLetterOrDigit(c) && c != '-' && c != '.' && c != '+' && c != '_') {
+				localValid = false;
+			}
+			localLength++;
+		} else {
+			if (c == '.') {
+				if (domainDot == -1 && domainLength > 0) {
+					domainDot = domainLength;
+				}
+			} else if (!isLetterOrDigit(c) && c != '-' && c != '_') {
+				domainValid = false;
+			}
+			domainLength++;
+		}
+	}
+
+	boolean isUrl() {
+		return urlState == URL_MATCH;
+	}
+
+	boolean isEmail() {
+		return atCount == 1 && localValid && localLength > 0 && domainValid
+				&& domainDot != -1 && domainDot <= domainLength - 2;
+	}
+
+	private static int nextUrlState(int state, char c) {
+		switch (state) {
+			case URL_START:
+				return c == 'h' ? URL_H : c == 'f' ? URL_F : URL_NONE;
+			case URL_H:
+				return c == 't' ? URL_HT : URL_NONE;
+			case URL_HT:
+				return c == 't' ? URL_HTT : URL_NONE;
+			case URL_HTT:
+				return c == 'p' ? URL_HTTP : URL_NONE;
+			case URL_HTTP:
+				return c == 's' ? URL_HTTPS : c == ':' ? URL_COLON : URL_NONE;
+			case URL_F:
+				return c == 't' ? URL_FT : c == 'i' ? URL_FI : URL_NONE;
+			case URL_FT:
+				return c == 'p' ? URL_FTP : URL_NONE;
+			case URL_FI:
+				return c == 'l' ? URL_FIL : URL_NONE;
+			case URL_FIL:
+				return c == 'e' ? URL_FILE : URL_NONE;
+			case URL_HTTPS:
+			case URL_FTP:
+			case URL_FILE:
+				return c == ':' ? URL_COLON : URL_NONE;
+			case URL_COLON:
+				return c == '/' ? URL_SLASH : URL_NONE;
+			case URL_SLASH:
+				return c == '/' ? URL_PATH : URL_NONE;
+			case URL_PATH:
+				// :和.不能作为URL的结尾，\不是URL的字符
+				if (c == ':' || c == '.') {
+					return URL_PATH;
+				}
+				return c == '\\' ? URL_NONE : URL_MATCH;
+			default:
+				return state;
+		}
+	}
+
+	private static boolean isLetterOrDigit(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
+}
@@ -0,0 +1,127 @@
+package test;
+
+import org.wltea.analyzer.IKSegmentation;
+import org.wltea.analyzer.dic.Dictionary;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 分词缓冲区大小的性能测试
+ * 对比不同的初始缓冲区大小下，短文本和长文本（夹杂很长的URL和字母串）的分词吞吐量，以及缓冲区可以扩容与不扩容时的差别
+ */
+public class BufferBenchmark {
+
+	private static final int[] BUFF_SIZES = {128, 512, 1024, 3072, 8192, 32768};
+
+	private static final int BUFF_EXHAUST_CRITICAL = 48;
+
+	private static final int MAX_BUFF_SIZE = 65536;
+
+	private static final int SHORT_TEXTS = 100000;
+
+	private static final int LONG_TEXT_LENGTH = 2000000;
+
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws Exception {
+		Dictionary.getInstance();
+		List<String> words = words();
+		String[] shortTexts = shortTexts(words);
+		String[] longText = {longText(words)};
+		System.out.println("buffSize\tgrow\tshort chars/s\tlong chars/s");
+		for (int buffSize : BUFF_SIZES) {
+			for (boolean grow : new boolean[]{false, true}) {
+				int maxBuffSize = grow ? Math.max(buffSize, MAX_BUFF_SIZE) : buffSize;
+				System.out.println(buffSize + "\t" + grow
+						+ "\t" + run(shortTexts, buffSize, maxBuffSize)
+						+ "\t" + run(longText, buffSize, maxBuffSize));
+			}
+		}
+	}
+
+	/**
+	 * 每个文本新建一个IKSegmentation分词，取最好一轮的吞吐量
+	 *
+	 * @return 每秒处理的字符数
+	 */
+	private static long run(String[] texts, int buffSize, int maxBuffSize) throws Exception {
+		long chars = 0;
+		for (String text : texts) {
+			chars += text.length();
+		}
+		long best = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			long begin = System.nanoTime();
+			for (String text : texts) {
+				IKSegmentation segmentation = new IKSegmentation(new StringReader(text), false,
+						buffSize, BUFF_EXHAUST_CRITICAL, maxBuffSize);
+				while (segmentation.next() != null) {
+					//消费全部词元
+				}
+			}
+			best = Math.min(best, System.nanoTime() - begin);
+		}
+		return chars * 1000000000L / best;
+	}
+
+	private static List<String> words() throws Exception {
+		List<String> words = new ArrayList<>();
+		for (String line : Files.readAllLines(new File("dict" + File.separator + Dictionary.PATH_DIC_MAIN).toPath(), Charset.forName("UTF-8"))) {
+			if (line.trim().length() > 0) {
+				words.add(line.trim());
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * 用主词典中的词随机拼接出长度10到40的短文本
+	 */
+	private static String[] shortTexts(List<String> words) {
+		Random random = new Random(42);
+		String[] texts = new String[SHORT_TEXTS];
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < SHORT_TEXTS; i++) {
+			int length = 10 + random.nextInt(31);
+			text.setLength(0);
+			while (text.length() < length) {
+				text.append(words.get(random.nextInt(words.size())));
+				if (random.nextInt(4) == 0) {
+					text.append('，');
+				}
+			}
+			texts[i] = text.toString();
+		}
+		return texts;
+	}
+
+	/**
+	 * 用主词典中的词随机拼接出长文本，每隔一段夹杂一个数百到数千字符的URL或字母串
+	 */
+	private static String longText(List<String> words) {
+		Random random = new Random(42);
+		StringBuilder text = new StringBuilder(LONG_TEXT_LENGTH);
+		while (text.length() < LONG_TEXT_LENGTH) {
+			text.append(words.get(random.nextInt(words.size())));
+			int r = random.nextInt(100);
+			if (r < 15) {
+				text.append('，');
+			} else if (r < 20) {
+				text.append("。\n");
+			} else if (r == 20 && random.nextInt(20) == 0) {
+				int length = 200 + random.nextInt(5000);
+				text.append(random.nextBoolean() ? "http://example.com/" : "");
+				for (int i = 0; i < length; i++) {
+					text.append((char) ('a' + random.nextInt(26)));
+				}
+			}
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,86 @@
+package test;
+
+import org.wltea.analyzer.dic.Dictionary;
+import org.wltea.analyzer.dic.Hit;
+import org.wltea.analyzer.dic.IDictTrie;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 词典匹配性能测试
+ * 输出词典加载耗时、加载后的堆占用、每次匹配的耗时和内存分配
+ */
+public class DictBenchmark {
+
+	private static final int ROUNDS = 10;
+
+	public static void main(String[] args) throws Exception {
+		long start = System.nanoTime();
+		Dictionary.getInstance();
+		long loadMillis = (System.nanoTime() - start) / 1000000;
+		System.out.println("dictionary load: " + loadMillis + " ms, heap used: " + usedHeap() / 1024 / 1024 + " MB");
+
+		List<char[]> words = new ArrayList<>();
+		for (String line : Files.readAllLines(new File("dict" + File.separator + Dictionary.PATH_DIC_MAIN).toPath(), Charset.forName("UTF-8"))) {
+			if (line.trim().length() > 0) {
+				words.add(line.trim().toCharArray());
+			}
+		}
+
+		IDictTrie mainDict = Dictionary.getInstance().getMainDict();
+		Hit hit = new Hit();
+		long hits = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			long allocated = allocatedBytes();
+			long begin = System.nanoTime();
+			int probes = 0;
+			for (char[] word : words) {
+				//逐字前缀匹配，模拟CJKSegmenter的调用方式
+				for (int length = 1; length <= word.length; length++) {
+					if (mainDict.matchInto(word, 0, length, hit).isMatch()) {
+						hits++;
+					}
+					probes++;
+				}
+			}
+			long elapsed = System.nanoTime() - begin;
+			allocated = allocatedBytes() - allocated;
+			System.out.println("round " + round + ": " + probes + " probes, "
+					+ (elapsed / probes) + " ns/probe, "
+					+ (allocated / probes) + " bytes/probe");
+		}
+		System.out.println("hits: " + hits);
+
+		//每个词从首字沿词典树只走一遍，找出全部前缀词
+		int[] ends = new int[64];
+		long walkHits = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			long begin = System.nanoTime();
+			for (char[] word : words) {
+				walkHits += mainDict.matchAll(word, 0, word.length, ends);
+			}
+			long elapsed = System.nanoTime() - begin;
+			System.out.println("walk round " + round + ": " + words.size() + " words, "
+					+ (elapsed / words.size()) + " ns/word");
+		}
+		System.out.println("walk hits: " + walkHits);
+	}
+
+	private static long usedHeap() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		Runtime runtime = Runtime.getRuntime();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,47 @@
+package test;
+
+import org.wltea.analyzer.dic.Dawg;
+import org.wltea.analyzer.dic.DictSegment;
+import org.wltea.analyzer.dic.Dictionary;
+import org.wltea.analyzer.dic.DoubleArrayTrie;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 词典内存对比
+ * 对每个词典文件分别构建DictSegment、双数组Trie和DAWG，输出估算的内存字节数
+ */
+public class DictMemoryReport {
+
+	private static final String[] PATHS = {Dictionary.PATH_DIC_MAIN, Dictionary.PATH_DIC_SURNAME,
+			Dictionary.PATH_DIC_QUANTIFIER, Dictionary.PATH_DIC_SUFFIX, Dictionary.PATH_DIC_PREP, Dictionary.PATH_DIC_STOP};
+
+	public static void main(String[] args) throws Exception {
+		System.out.println(String.format("%-18s%10s%16s%16s%16s", "dictionary", "words", "DictSegment", "DoubleArrayTrie", "Dawg"));
+		long[] totals = new long[3];
+		for (String path : PATHS) {
+			List<String> words = new ArrayList<>();
+			for (String line : Files.readAllLines(new File("dict" + File.separator + path).toPath(), Charset.forName("UTF-8"))) {
+				if (line.trim().length() > 0) {
+					words.add(line.trim());
+				}
+			}
+			DictSegment segment = new DictSegment((char) 0);
+			for (String word : words) {
+				segment.fillSegment(word.toCharArray());
+			}
+			long[] bytes = {segment.memoryUsage(), DoubleArrayTrie.build(words).memoryUsage(), Dawg.build(words).memoryUsage()};
+			System.out.println(String.format("%-18s%10d%,16d%,16d%,16d", path, words.size(), bytes[0], bytes[1], bytes[2]));
+			for (int i = 0; i < bytes.length; i++) {
+				totals[i] += bytes[i];
+			}
+		}
+		System.out.println(String.format("%-28s%,16d%,16d%,16d", "TOTAL", totals[0], totals[1], totals[2]));
+		System.out.println();
+		System.out.print(Dictionary.getInstance().getMemoryReport());
+	}
+}
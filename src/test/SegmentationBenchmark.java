@@ -0,0 +1,117 @@
+package test;
+
+import org.wltea.analyzer.IKBatchSegmentation;
+import org.wltea.analyzer.IKSegmentation;
+import org.wltea.analyzer.IKSegmentationPool;
+import org.wltea.analyzer.dic.Dictionary;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 短文本多线程分词性能测试
+ * 对比每次新建IKSegmentation、使用IKSegmentationPool和IKBatchSegmentation，线程数从1递增到CPU核数
+ */
+public class SegmentationBenchmark {
+
+	private static final int TEXTS = 200000;
+
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws Exception {
+		final String[] texts = shortTexts();
+		Dictionary.getInstance();
+		int cpus = Runtime.getRuntime().availableProcessors();
+		int threads = 1;
+		while (true) {
+			for (final boolean pooled : new boolean[]{false, true}) {
+				long best = Long.MAX_VALUE;
+				for (int round = 0; round < ROUNDS; round++) {
+					best = Math.min(best, run(texts, threads, pooled));
+				}
+				System.out.println(threads + " threads, " + (pooled ? "pooled" : "new   ") + ": "
+						+ (texts.length * 1000000000L / best) + " texts/s");
+			}
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			long best = Long.MAX_VALUE;
+			for (int round = 0; round < ROUNDS; round++) {
+				long begin = System.nanoTime();
+				IKBatchSegmentation.segment(texts, false, pool);
+				best = Math.min(best, System.nanoTime() - begin);
+			}
+			pool.shutdown();
+			System.out.println(threads + " threads, batch : " + (texts.length * 1000000000L / best) + " texts/s");
+			if (threads == cpus) {
+				break;
+			}
+			threads = Math.min(threads * 2, cpus);
+		}
+	}
+
+	private static long run(final String[] texts, int threads, final boolean pooled) throws InterruptedException {
+		Thread[] workers = new Thread[threads];
+		final int chunk = (texts.length + threads - 1) / threads;
+		for (int t = 0; t < threads; t++) {
+			final int from = t * chunk;
+			final int to = Math.min(texts.length, from + chunk);
+			workers[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int i = from; i < to; i++) {
+							IKSegmentation segmentation = pooled
+									? IKSegmentationPool.get(texts[i], false)
+									: new IKSegmentation(new StringReader(texts[i]));
+							while (segmentation.next() != null) {
+								//消费全部词元
+							}
+						}
+					} catch (Exception e) {
+						throw new RuntimeException(e);
+					}
+				}
+			};
+		}
+		long begin = System.nanoTime();
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		return System.nanoTime() - begin;
+	}
+
+	/**
+	 * 用主词典中的词随机拼接出长度10到40的短文本
+	 */
+	private static String[] shortTexts() throws Exception {
+		List<String> words = new ArrayList<>();
+		for (String line : Files.readAllLines(new File("dict" + File.separator + Dictionary.PATH_DIC_MAIN).toPath(), Charset.forName("UTF-8"))) {
+			if (line.trim().length() > 0) {
+				words.add(line.trim());
+			}
+		}
+		Random random = new Random(42);
+		String[] texts = new String[TEXTS];
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < TEXTS; i++) {
+			int length = 10 + random.nextInt(31);
+			text.setLength(0);
+			while (text.length() < length) {
+				text.append(words.get(random.nextInt(words.size())));
+				if (random.nextInt(4) == 0) {
+					text.append('，');
+				}
+			}
+			texts[i] = text.toString();
+		}
+		return texts;
+	}
+}
@@ -2,14 +2,35 @@ package test;
 
 import org.wltea.analyzer.IKSegmentation;
 import org.wltea.analyzer.Lexeme;
+import org.wltea.analyzer.TokenSink;
+import org.wltea.analyzer.Utf8TokenSink;
+import org.wltea.analyzer.cfg.Configuration;
+import org.wltea.analyzer.dic.Dictionary;
+import org.wltea.analyzer.help.CharacterHelper;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Created by masonqwli on 15/12/30.
  */
 public class Tests {
+
+	//混合文本的各个句子，包括人名、书名、数量词、英文、Email和URL
+	private static final String[] SENTENCES = {
+			"徐增寿、潘天寿合著的《我是传奇》，确确实实卖成了legend，值得我们第5小组学习，请发总结到我的邮箱naughty610@qq.com，thanks。",
+			"论语《资治通鉴》论语是一部珍贵的历史遗产，",
+			"他姓王和李，把赵钱孙李的名单发到http://www.example.com/list.html上。",
+			"二〇一五年十二月三十日下午3点45分，中华人民共和国国务院发布了约三千五百万元的补贴，增长了12.5%！",
+			"IK Analyzer是一个开源的，基于java语言开发的轻量级的中文分词工具包，从2006年12月推出1.0版开始。\n",
+			"今天天气不错\uD83D\uDE00，我们去公园吧。",
+	};
+
 	public static void main(String[] args) {
 
 		// ** 用于测试书名
@@ -30,5 +51,264 @@ public class Tests {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+
+		checkNamesAfterBufferPass();
+		checkEngines();
+		checkFeed();
+		checkUtf8();
+		System.err.println("all checks passed");
+	}
+
+	/**
+	 * 姓氏之后是超过一个缓冲区的标点：之后的缓冲区分析没有新的词元，
+	 * 不能再用上一次分析中已取出的姓氏去组成人名
+	 */
+	private static void checkNamesAfterBufferPass() {
+		for (String head : new String[]{"把赵钱孙李", "他姓王和李"}) {
+			StringBuilder text = new StringBuilder(head);
+			for (int i = 0; i < 3200; i++) {
+				text.append('，');
+			}
+			for (boolean isMaxWordLength : new boolean[]{false, true}) {
+				for (Lexeme lexeme : segment(text.toString(), isMaxWordLength)) {
+					check(lexeme.getEndPosition() <= head.length(), "names after buffer pass: " + lexeme);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 各种匹配引擎对同一段超过一个缓冲区的混合文本的切分结果与默认引擎相同
+	 * 每组为依次排列的系统属性及其取值
+	 */
+	private static void checkEngines() {
+		String[][] engines = {
+				{"ik.cjk.engine", "ac"},
+				{"ik.dict.engine", "datrie"},
+				{"ik.dict.engine", "datrie", "ik.cjk.engine", "ac"},
+				{"ik.dict.engine", "dawg"},
+				{"ik.dict.engine", "dawg", "ik.cjk.engine", "ac"},
+		};
+		String text = mixedText();
+		for (boolean isMaxWordLength : new boolean[]{false, true}) {
+			List<String> expected = describe(segment(text, isMaxWordLength));
+			for (String[] engine : engines) {
+				List<String> actual = segmentWith(engine, text, isMaxWordLength);
+				check(expected.equals(actual), Arrays.toString(engine) + " differs, isMaxWordLength=" + isMaxWordLength);
+			}
+		}
+	}
+
+	/**
+	 * 推送分词：一次缓冲区之内的文本在任意位置分成两段推入，或逐个字符推入，结果都与next()相同，
+	 * 分段位置包括词的中间和代理对的两个char之间；超过一个缓冲区的文本，结果与推入的分段方式无关
+	 */
+	private static void checkFeed() {
+		StringBuilder sentences = new StringBuilder();
+		for (String sentence : SENTENCES) {
+			sentences.append(sentence);
+		}
+		String text = sentences.toString();
+		String mixedText = mixedText();
+		for (boolean isMaxWordLength : new boolean[]{false, true}) {
+			List<String> expected = describe(segment(text, isMaxWordLength));
+			for (int first = 0; first <= text.length(); first++) {
+				check(expected.equals(feed(text, isMaxWordLength, first, text.length())),
+						"feed split at " + first + " differs from next(), isMaxWordLength=" + isMaxWordLength);
+			}
+			check(expected.equals(feed(text, isMaxWordLength, 1, 1)),
+					"feed by char differs from next(), isMaxWordLength=" + isMaxWordLength);
+
+			List<String> whole = feed(mixedText, isMaxWordLength, mixedText.length(), 1);
+			for (int chunk : new int[]{1, 7, 100, 3000}) {
+				check(whole.equals(feed(mixedText, isMaxWordLength, chunk, chunk)),
+						"feed by " + chunk + " chars differs, isMaxWordLength=" + isMaxWordLength);
+			}
+		}
+	}
+
+	/**
+	 * 推送分词：先推入first个字符，之后每次推入chunk个字符，最后调用finish
+	 */
+	private static List<String> feed(String text, boolean isMaxWordLength, int first, int chunk) {
+		final List<String> tokens = new ArrayList<String>();
+		TokenSink sink = new TokenSink() {
+			@Override
+			public void token(char[] buffer, int begin, int length, int position, Lexeme.Type type) {
+				tokens.add(position + "," + length + "," + type + "," + new String(buffer, begin, length));
+			}
+		};
+		IKSegmentation ik = new IKSegmentation((Reader) null, isMaxWordLength);
+		char[] chars = text.toCharArray();
+		int off = 0;
+		int len = Math.min(first, chars.length);
+		while (off < chars.length) {
+			ik.feed(chars, off, len, sink);
+			off += len;
+			len = Math.min(chunk, chars.length - off);
+		}
+		ik.finish(sink);
+		return tokens;
+	}
+
+	/**
+	 * UTF-8字节分词：词元与next()对解码后的文本分词相同，字节位置对应词元在输入中的原文。
+	 * 小缓冲区并在文本前加不同个数的空格，使缓冲区的分段落在多字节字符和代理对的不同位置；
+	 * 字节数组前后另有其他字节，检查off的处理
+	 */
+	private static void checkUtf8() {
+		Charset utf8 = Charset.forName("UTF-8");
+		for (int padding = 0; padding < 4; padding++) {
+			StringBuilder text = new StringBuilder();
+			for (int i = 0; i < padding; i++) {
+				text.append(' ');
+			}
+			text.append(mixedText());
+			byte[] bytes = text.toString().getBytes(utf8);
+			byte[] input = new byte[bytes.length + 6];
+			System.arraycopy(bytes, 0, input, 3, bytes.length);
+			for (int buffSize : new int[]{3072, 64}) {
+				for (boolean isMaxWordLength : new boolean[]{false, true}) {
+					String settings = "padding=" + padding + ", buffSize=" + buffSize + ", isMaxWordLength=" + isMaxWordLength;
+					List<String> expected = describeUtf8(segment(text.toString(), isMaxWordLength, buffSize), text.toString());
+					List<String> actual = segmentUtf8(input, 3, bytes.length, isMaxWordLength, buffSize);
+					check(expected.equals(actual), "utf-8 tokens differ from next(), " + settings);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 对utf8[off, off + len)做UTF-8字节分词，检查每个词元的字节范围解码并规格化后就是词元的文本
+	 */
+	private static List<String> segmentUtf8(final byte[] utf8, final int off, int len, boolean isMaxWordLength, int buffSize) {
+		final Charset charset = Charset.forName("UTF-8");
+		final List<String> tokens = new ArrayList<String>();
+		Utf8TokenSink sink = new Utf8TokenSink() {
+			@Override
+			public void token(char[] buffer, int begin, int length, int byteBegin, int byteLength, Lexeme.Type type) {
+				String lexemeText = new String(buffer, begin, length);
+				char[] source = new String(utf8, byteBegin, byteLength, charset).toCharArray();
+				for (int i = 0; i < source.length; i++) {
+					source[i] = CharacterHelper.regularize(source[i]);
+				}
+				check(lexemeText.equals(new String(source)), "byte span " + byteBegin + "+" + byteLength + " is not " + lexemeText);
+				tokens.add((byteBegin - off) + "," + byteLength + "," + type + "," + lexemeText);
+			}
+		};
+		newSegmentation(null, isMaxWordLength, buffSize).segment(utf8, off, len, sink);
+		return tokens;
+	}
+
+	/**
+	 * 词元在text的UTF-8编码中的字节位置、字节长度、类型和文本
+	 */
+	private static List<String> describeUtf8(List<Lexeme> lexemes, String text) {
+		//每个字符的字节位置，代理对的两个字符都记为四字节序列的起始位置
+		int[] byteOffsets = new int[text.length() + 1];
+		int bytes = 0;
+		for (int i = 0; i < text.length(); i++) {
+			byteOffsets[i] = bytes;
+			char c = text.charAt(i);
+			if (Character.isHighSurrogate(c)) {
+				continue;
+			}
+			bytes += c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isLowSurrogate(c) ? 4 : 3;
+		}
+		byteOffsets[text.length()] = bytes;
+		List<String> descriptions = new ArrayList<String>(lexemes.size());
+		for (Lexeme lexeme : lexemes) {
+			int begin = lexeme.getBeginPosition();
+			int end = lexeme.getEndPosition();
+			descriptions.add(byteOffsets[begin] + "," + (byteOffsets[end] - byteOffsets[begin]) + "," + lexeme.getType()
+					+ "," + lexeme.getLexemeText());
+		}
+		return descriptions;
+	}
+
+	/**
+	 * buffSize为默认大小时使用默认配置，否则临界区为buffSize的八分之一，不扩容
+	 */
+	private static IKSegmentation newSegmentation(Reader input, boolean isMaxWordLength, int buffSize) {
+		if (buffSize == Configuration.getBuffSize()) {
+			return new IKSegmentation(input, isMaxWordLength);
+		}
+		return new IKSegmentation(input, isMaxWordLength, buffSize, buffSize / 8, buffSize);
+	}
+
+	/**
+	 * 设置系统属性并重新加载词典后切分text，之后恢复默认配置
+	 */
+	private static List<String> segmentWith(String[] properties, String text, boolean isMaxWordLength) {
+		for (int i = 0; i < properties.length; i += 2) {
+			System.setProperty(properties[i], properties[i + 1]);
+		}
+		try {
+			reloadDictionary();
+			return describe(segment(text, isMaxWordLength));
+		} finally {
+			for (int i = 0; i < properties.length; i += 2) {
+				System.clearProperty(properties[i]);
+			}
+			reloadDictionary();
+		}
+	}
+
+	private static void reloadDictionary() {
+		try {
+			Dictionary.reload().get();
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 把SENTENCES重复拼接为超过两个默认缓冲区的文本
+	 */
+	private static String mixedText() {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; text.length() < 8192; i++) {
+			text.append(SENTENCES[i % SENTENCES.length]);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * 词元的位置、长度、类型和文本
+	 */
+	private static List<String> describe(List<Lexeme> lexemes) {
+		List<String> descriptions = new ArrayList<String>(lexemes.size());
+		for (Lexeme lexeme : lexemes) {
+			descriptions.add(lexeme.getBeginPosition() + "," + lexeme.getLength() + "," + lexeme.getType()
+					+ "," + lexeme.getLexemeText());
+		}
+		return descriptions;
+	}
+
+	/**
+	 * 用next()切分text
+	 */
+	private static List<Lexeme> segment(String text, boolean isMaxWordLength) {
+		return segment(text, isMaxWordLength, Configuration.getBuffSize());
+	}
+
+	private static List<Lexeme> segment(String text, boolean isMaxWordLength, int buffSize) {
+		IKSegmentation ik = newSegmentation(new StringReader(text), isMaxWordLength, buffSize);
+		List<Lexeme> lexemes = new ArrayList<Lexeme>();
+		try {
+			Lexeme lexeme;
+			while ((lexeme = ik.next()) != null) {
+				lexemes.add(lexeme);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return lexemes;
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
 	}
 }